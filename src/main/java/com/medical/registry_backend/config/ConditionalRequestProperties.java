@@ -0,0 +1,17 @@
+package com.medical.registry_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conditional-requests")
+public class ConditionalRequestProperties {
+
+    /**
+     * Требовать заголовок If-Match у PUT, PATCH и DELETE; без него ответ 428,
+     * чтобы запись без ETag не затирала чужие изменения. {@code If-Match: *} отключает проверку явно.
+     */
+    private boolean requireIfMatch = true;
+}
@@ -0,0 +1,47 @@
+package com.medical.registry_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "mkb10")
+public class Mkb10Properties {
+
+    /**
+     * Адрес CSV-файла справочника MKB10.
+     */
+    private String sourceUrl = "https://raw.githubusercontent.com/ak4nv/mkb10/master/mkb10.csv";
+
+    /**
+     * Как обновлять справочник при старте приложения.
+     */
+    private StartupMode startupMode = StartupMode.ASYNC;
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Каталог локальной копии CSV и её метаданных (ETag, Last-Modified, SHA-256).
+     */
+    private Path snapshotDir = Path.of(System.getProperty("java.io.tmpdir"), "mkb10");
+
+    /**
+     * Через какое время после последнего успешного обновления справочник считается устаревшим.
+     */
+    private Duration staleAfter = Duration.ofHours(36);
+
+    public enum StartupMode {
+        /** Обновление выполняется до завершения старта контекста. */
+        SYNC,
+        /** Старт завершается сразу, обновление выполняется в фоне. */
+        ASYNC,
+        /** Справочник обслуживается из текущей таблицы, обновление только по расписанию или вручную. */
+        OFF
+    }
+}
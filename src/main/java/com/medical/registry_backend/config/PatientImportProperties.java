@@ -0,0 +1,21 @@
+package com.medical.registry_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "patient.import")
+public class PatientImportProperties {
+
+    /**
+     * Сколько пациентов записывается в БД одной транзакцией.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Сколько ошибок по отдельным записям попадает в ответ; остальные только подсчитываются.
+     */
+    private int maxReportedErrors = 1000;
+}
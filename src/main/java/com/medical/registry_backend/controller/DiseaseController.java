@@ -1,5 +1,8 @@
 package com.medical.registry_backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medical.registry_backend.config.ConditionalRequestProperties;
+import com.medical.registry_backend.dto.CursorSlice;
 import com.medical.registry_backend.entity.Disease;
 import com.medical.registry_backend.exception.GlobalExceptionHandler;
 import com.medical.registry_backend.service.DiseaseService;
@@ -16,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 public class DiseaseController {
 
     private final DiseaseService diseaseService;
+    private final ConditionalRequestProperties conditionalRequestProperties;
     private static final Logger logger = LoggerFactory.getLogger(DiseaseController.class);
 
     @Operation(summary = "Получить список заболеваний пациента с пагинацией")
@@ -94,6 +100,63 @@ public class DiseaseController {
         return ResponseEntity.ok(diseaseService.getDiseasesByPatientId(patientId, pageable));
     }
 
+    @Operation(summary = "Получить заболевания пациента по курсору",
+            description = "Первая страница запрашивается с пустым after, следующие — с nextCursor из ответа. "
+                    + "Общее число записей не считается. Сортировка (id или startDate) задаётся только для первой страницы.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница заболеваний",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CursorSlice.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "content": [
+                                            {
+                                                "id": 1,
+                                                "mkb10": {
+                                                    "code": "A00.0",
+                                                    "name": "Холера"
+                                                },
+                                                "startDate": "2025-01-15",
+                                                "endDate": "2025-02-10",
+                                                "prescriptions": "Постельный режим, жаропонижающие препараты",
+                                                "sickLeaveIssued": true
+                                            }
+                                        ],
+                                        "size": 10,
+                                        "hasNext": false,
+                                        "nextCursor": null
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или сортировка",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Некорректный курсор", value = """
+                                    {
+                                        "message": "Некорректный курсор"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "404", description = "Пациент не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Пациент не найден", value = """
+                                    {
+                                        "message": "Пациент с ID 1 не найден"
+                                    }
+                                    """)))
+    })
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorSlice<Disease>> getDiseasesByPatientIdAfter(
+            @Parameter(description = "ID пациента", example = "1") @PathVariable("patient_id") Long patientId,
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы; пустой для первой страницы")
+            @RequestParam String after,
+            @Parameter(description = "Размер страницы (от 1 до 1000)", example = "100")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Сортировка первой страницы, например startDate,desc")
+            Sort sort) {
+        logger.info("Fetching diseases for patient ID: {} after cursor: {}, size: {}", patientId, after, size);
+        return ResponseEntity.ok(diseaseService.getDiseasesByPatientIdAfter(patientId, after, sort, size));
+    }
+
     @Operation(summary = "Получить заболевание по ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Заболевание найдено",
@@ -112,6 +175,7 @@ public class DiseaseController {
                                         "sickLeaveIssued": true
                                     }
                                     """))),
+            @ApiResponse(responseCode = "304", description = "Запись не изменилась с версии из If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Заболевание или пациент не найдены",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
@@ -124,9 +188,18 @@ public class DiseaseController {
     @GetMapping("/{diseaseId}")
     public ResponseEntity<Disease> getDiseaseById(
             @Parameter(description = "ID пациента", example = "1") @PathVariable("patient_id") Long patientId,
-            @Parameter(description = "ID заболевания", example = "1") @PathVariable Long diseaseId) {
+            @Parameter(description = "ID заболевания", example = "1") @PathVariable Long diseaseId,
+            @Parameter(description = "ETag ранее полученной версии", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Fetching disease ID: {} for patient ID: {}", diseaseId, patientId);
-        return ResponseEntity.ok(diseaseService.getDiseaseById(patientId, diseaseId));
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(diseaseService.getDiseaseVersion(patientId, diseaseId));
+            if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        Disease disease = diseaseService.getDiseaseById(patientId, diseaseId);
+        return ResponseEntity.ok().eTag(ETags.of(disease.getVersion())).body(disease);
     }
 
     @Operation(summary = "Добавить заболевание пациенту")
@@ -284,6 +357,15 @@ public class DiseaseController {
                                         "message": "Дата начала болезни должна быть до даты окончания"
                                     }
                                     """))),
+            @ApiResponse(responseCode = "412", description = "Запись изменена после получения ETag из If-Match",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Версия устарела", value = """
+                                    {
+                                        "message": "Запись изменена другим запросом: текущая версия 4"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "428", description = "Не передан If-Match, когда он обязателен"),
             @ApiResponse(responseCode = "404", description = "Заболевание или пациент не найдены",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
@@ -297,6 +379,8 @@ public class DiseaseController {
     public ResponseEntity<Disease> updateDisease(
             @Parameter(description = "ID пациента", example = "1") @PathVariable("patient_id") Long patientId,
             @Parameter(description = "ID заболевания", example = "1") @PathVariable Long diseaseId,
+            @Parameter(description = "ETag изменяемой записи", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Обновлённые данные заболевания",
                     required = true,
@@ -319,13 +403,90 @@ public class DiseaseController {
             )
             @Valid @RequestBody Disease disease) {
         logger.info("Updating disease ID: {} for patient ID: {}", diseaseId, patientId);
-        Disease updated = diseaseService.updateDisease(patientId, diseaseId, disease);
-        return ResponseEntity.ok(updated);
+        Disease updated = diseaseService.updateDisease(patientId, diseaseId, disease, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
+    }
+
+    @Operation(summary = "Частично обновить заболевание",
+            description = "JSON Merge Patch (RFC 7396): передаются только изменяемые поля, null удаляет endDate. "
+                    + "В UPDATE попадают только изменённые столбцы.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Заболевание обновлено",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Disease.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "id": 1,
+                                        "mkb10": {
+                                            "code": "A00.0",
+                                            "name": "Холера"
+                                        },
+                                        "startDate": "2025-01-15",
+                                        "endDate": "2025-02-10",
+                                        "prescriptions": "Постельный режим, жаропонижающие препараты",
+                                        "sickLeaveIssued": true
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Недопустимое поле или значение",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Обязательное поле", value = """
+                                    {
+                                        "message": "Поле prescriptions обязательно и не может быть удалено"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "412", description = "Запись изменена после получения ETag из If-Match",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Версия устарела", value = """
+                                    {
+                                        "message": "Запись изменена другим запросом: текущая версия 4"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "428", description = "Не передан If-Match, когда он обязателен"),
+            @ApiResponse(responseCode = "404", description = "Заболевание или код МКБ-10 не найдены",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Заболевание не найдено", value = """
+                                    {
+                                        "message": "Заболевание с ID 1 не найдено"
+                                    }
+                                    """)))
+    })
+    @PatchMapping(value = "/{diseaseId}", consumes = "application/merge-patch+json")
+    public ResponseEntity<Disease> patchDisease(
+            @Parameter(description = "ID пациента", example = "1") @PathVariable("patient_id") Long patientId,
+            @Parameter(description = "ID заболевания", example = "1") @PathVariable Long diseaseId,
+            @Parameter(description = "ETag изменяемой записи", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Изменяемые поля заболевания",
+                    required = true,
+                    content = @Content(mediaType = "application/merge-patch+json",
+                            examples = @ExampleObject(name = "Пример запроса", value = """
+                                    {
+                                        "endDate": "2025-02-10",
+                                        "sickLeaveIssued": true
+                                    }
+                                    """)))
+            @RequestBody JsonNode patch) {
+        logger.info("Patching disease ID: {} for patient ID: {}", diseaseId, patientId);
+        Disease patched = diseaseService.patchDisease(patientId, diseaseId, patch, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patched.getVersion())).body(patched);
     }
 
     @Operation(summary = "Удалить заболевание")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Заболевание успешно удалено"),
+            @ApiResponse(responseCode = "412", description = "Запись изменена после получения ETag из If-Match",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Версия устарела", value = """
+                                    {
+                                        "message": "Запись изменена другим запросом: текущая версия 4"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "428", description = "Не передан If-Match, когда он обязателен"),
             @ApiResponse(responseCode = "404", description = "Заболевание или пациент не найдены",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
@@ -338,9 +499,15 @@ public class DiseaseController {
     @DeleteMapping("/{diseaseId}")
     public ResponseEntity<Void> deleteDisease(
             @Parameter(description = "ID пациента", example = "1") @PathVariable("patient_id") Long patientId,
-            @Parameter(description = "ID заболевания", example = "1") @PathVariable Long diseaseId) {
+            @Parameter(description = "ID заболевания", example = "1") @PathVariable Long diseaseId,
+            @Parameter(description = "ETag удаляемой записи", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Deleting disease ID: {} for patient ID: {}", diseaseId, patientId);
-        diseaseService.deleteDisease(patientId, diseaseId);
+        diseaseService.deleteDisease(patientId, diseaseId, expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private Long expectedVersion(String ifMatch) {
+        return ETags.expectedVersion(ifMatch, conditionalRequestProperties.isRequireIfMatch());
+    }
+}
@@ -0,0 +1,63 @@
+package com.medical.registry_backend.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Сильные ETag из версии записи ({@code "3"}) и разбор условных заголовков.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Совпадает ли ETag с одним из значений If-None-Match (слабое сравнение, RFC 9110 13.1.2).
+     */
+    static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ожидаемая версия из If-Match. Слабые и нечисловые ETag не совпадают ни с одной версией.
+     * @param required Отказывать, если заголовок не передан
+     * @return Версия или {@code null}, если проверять нечего (нет заголовка или {@code *})
+     * @throws ResponseStatusException 428 без обязательного заголовка, 412 для ETag не из этого API
+     */
+    static Long expectedVersion(String ifMatch, boolean required) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            if (required) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                        "Требуется заголовок If-Match с ETag записи");
+            }
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // не наш ETag — ниже 412
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                "Заголовок If-Match не соответствует текущей версии записи");
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -1,7 +1,15 @@
 package com.medical.registry_backend.controller;
 
+import com.medical.registry_backend.dto.Mkb10DictionaryStatus;
+import com.medical.registry_backend.dto.Mkb10Match;
+import com.medical.registry_backend.dto.Mkb10NodeDiseaseCount;
+import com.medical.registry_backend.dto.Mkb10RefreshJob;
+import com.medical.registry_backend.dto.Mkb10ResolveRequest;
+import com.medical.registry_backend.dto.Mkb10ResolveResult;
 import com.medical.registry_backend.entity.Mkb10;
+import com.medical.registry_backend.entity.Mkb10Node;
 import com.medical.registry_backend.exception.GlobalExceptionHandler;
+import com.medical.registry_backend.service.Mkb10HierarchyService;
 import com.medical.registry_backend.service.Mkb10Service;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,6 +18,7 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +26,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/dictionary/mkb10")
@@ -24,6 +37,7 @@ import org.springframework.web.bind.annotation.*;
 public class Mkb10Controller {
     private static final Logger logger = LoggerFactory.getLogger(Mkb10Controller.class);
     private final Mkb10Service mkb10Service;
+    private final Mkb10HierarchyService mkb10HierarchyService;
 
     @Operation(summary = "Получить все записи MKB10 с поддержкой пагинации")
     @ApiResponses({
@@ -82,6 +96,267 @@ public class Mkb10Controller {
         return ResponseEntity.ok(page);
     }
 
+    @Operation(summary = "Подсказки MKB10 по префиксу кода или наименования")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список подсказок (не более limit записей)",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    [
+                                        {
+                                            "code": "J06.0",
+                                            "name": "Острый ларингофарингит"
+                                        },
+                                        {
+                                            "code": "J06.8",
+                                            "name": "Другие острые инфекции верхних дыхательных путей множественной локализации"
+                                        }
+                                    ]
+                                    """)))
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Mkb10>> suggestMkb10(
+            @Parameter(description = "Префикс кода или слова наименования", example = "J06.") @RequestParam String prefix,
+            @Parameter(description = "Максимальное число подсказок (1-20)", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        logger.info("Suggesting MKB10 data for prefix: {}, limit: {}", prefix, limit);
+        return ResponseEntity.ok(mkb10Service.suggestMkb10(prefix, limit));
+    }
+
+    @Operation(summary = "Полнотекстовый поиск MKB10 по наименованию",
+            description = "Учитывает словоформы: запрос «холеры» находит «Холера». Все слова запроса должны "
+                    + "встретиться в наименовании; результаты упорядочены по убыванию ранга.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Совпадения по убыванию ранга",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    [
+                                        {
+                                            "code": "A00.0",
+                                            "name": "Холера, вызванная холерным вибрионом 01, биовар cholerae",
+                                            "rank": 0.0607927
+                                        }
+                                    ]
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Пустой запрос или недопустимый limit",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Пустой запрос", value = """
+                                    {
+                                        "message": "Строка поиска не должна быть пустой"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<Mkb10Match>> fullTextSearchMkb10(
+            @Parameter(description = "Слова наименования в любой форме", example = "холеры") @RequestParam String query,
+            @Parameter(description = "Максимальное число результатов (1-100)", example = "20") @RequestParam(defaultValue = "20") int limit) {
+        logger.info("Full-text searching MKB10 data by '{}', limit: {}", query, limit);
+        return ResponseEntity.ok(mkb10Service.fullTextSearchMkb10(query, limit));
+    }
+
+    @Operation(summary = "Классы МКБ-10 — корни иерархии")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Классы в порядке пути",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    [
+                                        {
+                                            "id": 1,
+                                            "parentId": null,
+                                            "path": "01",
+                                            "code": null,
+                                            "name": "НЕКОТОРЫЕ ИНФЕКЦИОННЫЕ И ПАРАЗИТАРНЫЕ БОЛЕЗНИ (A00-B99)",
+                                            "type": "CHAPTER"
+                                        }
+                                    ]
+                                    """)))
+    })
+    @GetMapping("/tree")
+    public ResponseEntity<List<Mkb10Node>> getMkb10Chapters() {
+        logger.info("Fetching MKB10 chapters");
+        return ResponseEntity.ok(mkb10HierarchyService.getChapters());
+    }
+
+    @Operation(summary = "Узел иерархии МКБ-10 по коду рубрики или подрубрики")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Узел найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Mkb10Node.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "id": 3,
+                                        "parentId": 2,
+                                        "path": "0101A00",
+                                        "code": "A00",
+                                        "name": "Холера",
+                                        "type": "CATEGORY"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "404", description = "Код не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Код не найден", value = """
+                                    {
+                                        "message": "Код МКБ-10 Z99.9 не найден"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/tree/code/{code}")
+    public ResponseEntity<Mkb10Node> getMkb10NodeByCode(
+            @Parameter(description = "Код рубрики или подрубрики", example = "A00") @PathVariable String code) {
+        logger.info("Fetching MKB10 node for code: {}", code);
+        return ResponseEntity.ok(mkb10HierarchyService.getNodeByCode(code));
+    }
+
+    @Operation(summary = "Узел иерархии МКБ-10 по ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Узел найден",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Mkb10Node.class))),
+            @ApiResponse(responseCode = "404", description = "Узел не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Узел не найден", value = """
+                                    {
+                                        "message": "Узел МКБ-10 с ID 999999 не найден"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/tree/{id}")
+    public ResponseEntity<Mkb10Node> getMkb10Node(
+            @Parameter(description = "ID узла иерархии", example = "2") @PathVariable Long id) {
+        logger.info("Fetching MKB10 node with ID: {}", id);
+        return ResponseEntity.ok(mkb10HierarchyService.getNode(id));
+    }
+
+    @Operation(summary = "Непосредственные потомки узла МКБ-10",
+            description = "Для класса — блоки, для блока — рубрики, для рубрики — подрубрики.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Потомки в порядке пути",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    [
+                                        {
+                                            "id": 3,
+                                            "parentId": 2,
+                                            "path": "0101A00",
+                                            "code": "A00",
+                                            "name": "Холера",
+                                            "type": "CATEGORY"
+                                        }
+                                    ]
+                                    """))),
+            @ApiResponse(responseCode = "404", description = "Узел не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Узел не найден", value = """
+                                    {
+                                        "message": "Узел МКБ-10 с ID 999999 не найден"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/tree/{id}/children")
+    public ResponseEntity<List<Mkb10Node>> getMkb10Children(
+            @Parameter(description = "ID узла иерархии", example = "2") @PathVariable Long id) {
+        logger.info("Fetching children of MKB10 node {}", id);
+        return ResponseEntity.ok(mkb10HierarchyService.getChildren(id));
+    }
+
+    @Operation(summary = "Предки узла МКБ-10 от класса до родителя")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Предки в порядке от корня",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    [
+                                        {
+                                            "id": 1,
+                                            "parentId": null,
+                                            "path": "01",
+                                            "code": null,
+                                            "name": "НЕКОТОРЫЕ ИНФЕКЦИОННЫЕ И ПАРАЗИТАРНЫЕ БОЛЕЗНИ (A00-B99)",
+                                            "type": "CHAPTER"
+                                        },
+                                        {
+                                            "id": 2,
+                                            "parentId": 1,
+                                            "path": "0101",
+                                            "code": null,
+                                            "name": "КИШЕЧНЫЕ ИНФЕКЦИИ (A00-A09)",
+                                            "type": "BLOCK"
+                                        }
+                                    ]
+                                    """))),
+            @ApiResponse(responseCode = "404", description = "Узел не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Узел не найден", value = """
+                                    {
+                                        "message": "Узел МКБ-10 с ID 999999 не найден"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/tree/{id}/ancestors")
+    public ResponseEntity<List<Mkb10Node>> getMkb10Ancestors(
+            @Parameter(description = "ID узла иерархии", example = "2") @PathVariable Long id) {
+        logger.info("Fetching ancestors of MKB10 node {}", id);
+        return ResponseEntity.ok(mkb10HierarchyService.getAncestors(id));
+    }
+
+    @Operation(summary = "Поддерево узла МКБ-10",
+            description = "Узел и все его потомки в порядке пути; выбираются одним диапазонным запросом.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Узел и потомки",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Узел не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Узел не найден", value = """
+                                    {
+                                        "message": "Узел МКБ-10 с ID 999999 не найден"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/tree/{id}/subtree")
+    public ResponseEntity<List<Mkb10Node>> getMkb10Subtree(
+            @Parameter(description = "ID узла иерархии", example = "2") @PathVariable Long id) {
+        logger.info("Fetching subtree of MKB10 node {}", id);
+        return ResponseEntity.ok(mkb10HierarchyService.getSubtree(id));
+    }
+
+    @Operation(summary = "Число заболеваний в поддереве узла МКБ-10",
+            description = "Например, все заболевания блока A00-A09: коды узла и его потомков не перечисляются, "
+                    + "а выбираются диапазоном путей.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Узел и число заболеваний",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Mkb10NodeDiseaseCount.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "node": {
+                                            "id": 2,
+                                            "parentId": 1,
+                                            "path": "0101",
+                                            "code": null,
+                                            "name": "КИШЕЧНЫЕ ИНФЕКЦИИ (A00-A09)",
+                                            "type": "BLOCK"
+                                        },
+                                        "diseaseCount": 42
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "404", description = "Узел не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Узел не найден", value = """
+                                    {
+                                        "message": "Узел МКБ-10 с ID 999999 не найден"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/tree/{id}/disease-count")
+    public ResponseEntity<Mkb10NodeDiseaseCount> countMkb10SubtreeDiseases(
+            @Parameter(description = "ID узла иерархии", example = "2") @PathVariable Long id) {
+        logger.info("Counting diseases in subtree of MKB10 node {}", id);
+        return ResponseEntity.ok(mkb10HierarchyService.countDiseases(id));
+    }
+
     @Operation(summary = "Получить запись MKB10 по коду")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Запись MKB10 найдена",
@@ -114,14 +389,96 @@ public class Mkb10Controller {
         return ResponseEntity.ok(mkb10);
     }
 
-    @Operation(summary = "Запустить ручное обновление справочника MKB10")
+    @Operation(summary = "Получить записи MKB10 по списку кодов")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Обновление справочника инициировано",
+            @ApiResponse(responseCode = "200", description = "Найденные записи и отсутствующие коды",
                     content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Mkb10ResolveResult.class),
                             examples = @ExampleObject(name = "Пример ответа", value = """
-                                    "Обновление справочника МКБ-10 инициировано"
+                                    {
+                                        "found": [
+                                            {
+                                                "code": "A00.0",
+                                                "name": "Холера, вызванная холерным вибрионом 01, биовар cholerae"
+                                            },
+                                            {
+                                                "code": "J06.9",
+                                                "name": "Острая инфекция верхних дыхательных путей неуточненная"
+                                            }
+                                        ],
+                                        "missing": ["Z99.99"]
+                                    }
                                     """))),
-            @ApiResponse(responseCode = "500", description = "Ошибка при обновлении справочника",
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой список кодов",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Ошибка: Пустой список", value = """
+                                    {
+                                        "codes": "Список кодов не может быть пустым"
+                                    }
+                                    """)))
+    })
+    @PostMapping("/resolve")
+    public ResponseEntity<Mkb10ResolveResult> resolveMkb10Codes(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Коды MKB10 (не более 1000)",
+                    required = true,
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Пример запроса", value = """
+                                    {
+                                        "codes": ["A00.0", "J06.9", "Z99.99"]
+                                    }
+                                    """)))
+            @Valid @RequestBody Mkb10ResolveRequest request) {
+        logger.info("Resolving {} MKB10 codes", request.codes().size());
+        Mkb10ResolveResult result = mkb10Service.resolveMkb10Codes(request.codes());
+        if (!result.missing().isEmpty()) {
+            logger.warn("MKB10 codes not found: {}", result.missing());
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Получить состояние справочника MKB10")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Размер и свежесть справочника",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Mkb10DictionaryStatus.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "size": 14850,
+                                        "refreshing": false,
+                                        "stale": false,
+                                        "lastSuccessAt": "2025-07-15T02:00:03.120Z",
+                                        "lastAttemptAt": "2025-07-15T02:00:00.004Z",
+                                        "lastError": null
+                                    }
+                                    """)))
+    })
+    @GetMapping("/status")
+    public ResponseEntity<Mkb10DictionaryStatus> getDictionaryStatus() {
+        return ResponseEntity.ok(mkb10Service.getDictionaryStatus());
+    }
+
+    @Operation(summary = "Запустить ручное обновление справочника MKB10",
+            description = "Обновление выполняется в фоне. Если обновление уже идёт (по расписанию, при старте "
+                    + "или по другому запросу), новое не запускается: возвращается текущая задача.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Обновление запущено или уже выполняется",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Mkb10RefreshJob.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "id": "3f1c2d9e-5b7a-4c1e-9a51-0f6d2b8e7c11",
+                                        "state": "RUNNING",
+                                        "startedAt": "2025-07-15T10:12:00.004Z",
+                                        "finishedAt": null,
+                                        "durationMs": 1240,
+                                        "parsedRows": 6200,
+                                        "joinedRequests": 0,
+                                        "result": null,
+                                        "message": null
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "500", description = "Не удалось запустить обновление",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
                             examples = @ExampleObject(name = "Ошибка: Обновление не удалось", value = """
@@ -131,9 +488,51 @@ public class Mkb10Controller {
                                     """)))
     })
     @PostMapping("/update")
-    public ResponseEntity<String> updateMkb10Data() {
+    public ResponseEntity<Mkb10RefreshJob> updateMkb10Data() {
         logger.info("Initiating manual MKB10 data update");
-        mkb10Service.updateMkb10Data();
-        return ResponseEntity.ok("Обновление справочника МКБ-10 инициировано");
+        Mkb10RefreshJob job = mkb10Service.startMkb10Refresh();
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.id()).toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @Operation(summary = "Состояние задачи обновления справочника MKB10",
+            description = "Ход разбора источника, итог слияния и длительность. Хранятся последние 20 задач.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Состояние задачи",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Mkb10RefreshJob.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "id": "3f1c2d9e-5b7a-4c1e-9a51-0f6d2b8e7c11",
+                                        "state": "SUCCEEDED",
+                                        "startedAt": "2025-07-15T10:12:00.004Z",
+                                        "finishedAt": "2025-07-15T10:12:03.120Z",
+                                        "durationMs": 3116,
+                                        "parsedRows": 10716,
+                                        "joinedRequests": 1,
+                                        "result": {
+                                            "inserted": 12,
+                                            "updated": 3,
+                                            "deleted": 1,
+                                            "unchanged": 10700,
+                                            "retained": 0
+                                        },
+                                        "message": null
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Задача не найдена", value = """
+                                    {
+                                        "message": "Задача обновления справочника 3f1c2d9e-5b7a-4c1e-9a51-0f6d2b8e7c11 не найдена"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/update/{id}")
+    public ResponseEntity<Mkb10RefreshJob> getMkb10RefreshJob(
+            @Parameter(description = "Идентификатор задачи из ответа POST /update",
+                    example = "3f1c2d9e-5b7a-4c1e-9a51-0f6d2b8e7c11") @PathVariable String id) {
+        return ResponseEntity.ok(mkb10Service.getMkb10RefreshJob(id));
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,17 @@
 package com.medical.registry_backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medical.registry_backend.config.ConditionalRequestProperties;
+import com.medical.registry_backend.dto.CursorSlice;
+import com.medical.registry_backend.dto.PatientImportResult;
+import com.medical.registry_backend.dto.PatientMatch;
+import com.medical.registry_backend.dto.PatientSearchCriteria;
+import com.medical.registry_backend.dto.PatientSummary;
 import com.medical.registry_backend.entity.Patient;
 import com.medical.registry_backend.exception.GlobalExceptionHandler;
+import com.medical.registry_backend.service.PatientExportService;
+import com.medical.registry_backend.service.PatientFuzzySearchService;
+import com.medical.registry_backend.service.PatientImportService;
 import com.medical.registry_backend.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,9 +27,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/patient")
@@ -27,6 +47,10 @@ import org.springframework.web.bind.annotation.*;
 public class PatientController {
 
     private final PatientService patientService;
+    private final PatientExportService patientExportService;
+    private final PatientImportService patientImportService;
+    private final PatientFuzzySearchService patientFuzzySearchService;
+    private final ConditionalRequestProperties conditionalRequestProperties;
     private static final Logger logger = LoggerFactory.getLogger(PatientController.class);
 
     @Operation(summary = "Получить всех пациентов с пагинацией")
@@ -92,6 +116,234 @@ public class PatientController {
         return ResponseEntity.ok(patientService.getAllPatients(pageable));
     }
 
+    @Operation(summary = "Получить краткие сведения о пациентах с пагинацией",
+            description = "Облегчённый список для табличного представления: без заболеваний, "
+                    + "сущности пациентов не загружаются. Число заболеваний считается только при diseaseCount=true.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница кратких сведений",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Page.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "content": [
+                                            {
+                                                "id": 1,
+                                                "lastName": "Иванов",
+                                                "firstName": "Иван",
+                                                "middleName": "Иванович",
+                                                "gender": "М",
+                                                "birthDate": "1990-01-01",
+                                                "insuranceNumber": "1234567890123456",
+                                                "diseaseCount": 2
+                                            }
+                                        ],
+                                        "pageable": {
+                                            "pageNumber": 0,
+                                            "pageSize": 10
+                                        },
+                                        "totalElements": 1,
+                                        "totalPages": 1
+                                    }
+                                    """)))
+    })
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<Page<PatientSummary>> getPatientSummaries(
+            @Parameter(description = "Параметры пагинации (передаются как query-параметры: ?page=0&size=10&sort=lastName,asc)")
+            Pageable pageable,
+            @Parameter(description = "Посчитать число заболеваний каждого пациента", example = "true")
+            @RequestParam(defaultValue = "false") boolean diseaseCount) {
+        logger.info("Fetching patient summaries with pageable: {}", pageable);
+        return ResponseEntity.ok(patientService.getPatientSummaries(pageable, diseaseCount));
+    }
+
+    @Operation(summary = "Получить пациентов по курсору",
+            description = "Режим постраничного чтения по ключу для полного обхода реестра: "
+                    + "первая страница запрашивается с пустым after, следующие — с nextCursor из ответа. "
+                    + "Общее число записей не считается, стоимость страницы не зависит от её положения. "
+                    + "Сортировка (id, lastName или birthDate) задаётся только для первой страницы.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница пациентов",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CursorSlice.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "content": [
+                                            {
+                                                "id": 1,
+                                                "lastName": "Иванов",
+                                                "firstName": "Иван",
+                                                "middleName": "Иванович",
+                                                "gender": "М",
+                                                "birthDate": "1990-01-01",
+                                                "insuranceNumber": "1234567890123456",
+                                                "diseases": []
+                                            }
+                                        ],
+                                        "size": 1,
+                                        "hasNext": true,
+                                        "nextCursor": "aWQKQVNDCjE"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или сортировка",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Некорректный курсор", value = """
+                                    {
+                                        "message": "Некорректный курсор"
+                                    }
+                                    """)))
+    })
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorSlice<Patient>> getPatientsAfter(
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы; пустой для первой страницы")
+            @RequestParam String after,
+            @Parameter(description = "Размер страницы (от 1 до 1000)", example = "100")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Сортировка первой страницы, например lastName,asc")
+            Sort sort) {
+        logger.info("Fetching patients after cursor: {}, size: {}", after, size);
+        return ResponseEntity.ok(patientService.getPatientsAfter(after, sort, size));
+    }
+
+    @Operation(summary = "Найти пациентов",
+            description = "Точный поиск по номеру полиса и дате рождения, поиск по началу фамилии, имени и отчества "
+                    + "без учёта регистра. Условия объединяются через И, нужно хотя бы одно. "
+                    + "Результаты отдаются по курсору, как в GET /patient?after=; по умолчанию сортировка по фамилии.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Найденные пациенты",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CursorSlice.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "content": [
+                                            {
+                                                "id": 1,
+                                                "lastName": "Иванов",
+                                                "firstName": "Иван",
+                                                "middleName": "Иванович",
+                                                "gender": "М",
+                                                "birthDate": "1990-01-01",
+                                                "insuranceNumber": "1234567890123456",
+                                                "version": 0
+                                            }
+                                        ],
+                                        "size": 20,
+                                        "hasNext": false,
+                                        "nextCursor": null
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Не задан ни один критерий или некорректный курсор",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Нет критериев", value = """
+                                    {
+                                        "message": "Укажите хотя бы один критерий поиска"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<CursorSlice<PatientSummary>> searchPatients(
+            @Parameter(description = "Начало фамилии", example = "ива")
+            @RequestParam(required = false) String lastName,
+            @Parameter(description = "Начало имени", example = "ив")
+            @RequestParam(required = false) String firstName,
+            @Parameter(description = "Начало отчества", example = "ив")
+            @RequestParam(required = false) String middleName,
+            @Parameter(description = "Дата рождения", example = "1990-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthDate,
+            @Parameter(description = "Номер полиса (16 цифр)", example = "1234567890123456")
+            @RequestParam(required = false) String insuranceNumber,
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы; пустой для первой страницы")
+            @RequestParam(defaultValue = "") String after,
+            @Parameter(description = "Размер страницы (от 1 до 1000)", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Сортировка первой страницы: id, lastName или birthDate")
+            Sort sort) {
+        PatientSearchCriteria criteria = new PatientSearchCriteria(lastName, firstName, middleName, birthDate, insuranceNumber);
+        logger.info("Searching patients by {}", criteria);
+        return ResponseEntity.ok(patientService.searchPatients(criteria, after, sort, size));
+    }
+
+    @Operation(summary = "Найти пациентов по ФИО с опечатками",
+            description = "Нечёткий поиск по триграммам: находит «Иванов» по запросу «Иваннов», не различает Ё и Е. "
+                    + "Запрос сравнивается с наиболее похожей частью ФИО; результаты упорядочены по убыванию сходства.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Лучшие совпадения",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    [
+                                        {
+                                            "patient": {
+                                                "id": 1,
+                                                "lastName": "Иванов",
+                                                "firstName": "Иван",
+                                                "middleName": "Иванович",
+                                                "gender": "М",
+                                                "birthDate": "1990-01-01",
+                                                "insuranceNumber": "1234567890123456",
+                                                "version": 0
+                                            },
+                                            "score": 0.6666667
+                                        }
+                                    ]
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Пустой запрос или недопустимый limit",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Пустой запрос", value = """
+                                    {
+                                        "message": "Строка поиска не должна быть пустой"
+                                    }
+                                    """)))
+    })
+    @GetMapping(value = "/search", params = "fuzzy")
+    public ResponseEntity<List<PatientMatch>> searchPatientsFuzzy(
+            @Parameter(description = "Фамилия, возможно с именем и отчеством", example = "Иваннов")
+            @RequestParam String fuzzy,
+            @Parameter(description = "Сколько лучших совпадений вернуть (от 1 до 100)", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        logger.info("Fuzzy searching patients by '{}', limit: {}", fuzzy, limit);
+        return ResponseEntity.ok(patientFuzzySearchService.findByName(fuzzy, limit));
+    }
+
+    @Operation(summary = "Выгрузить весь реестр пациентов",
+            description = "Потоковая выгрузка пациентов с заболеваниями. NDJSON: один пациент на строку; "
+                    + "CSV: одна строка на заболевание. Записи читаются курсором БД и сразу отправляются клиенту.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток выгрузки",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson",
+                                    examples = @ExampleObject(name = "Пример строки NDJSON", value = """
+                                            {"id":1,"lastName":"Иванов","firstName":"Иван","middleName":"Иванович","gender":"М","birthDate":"1990-01-01","insuranceNumber":"1234567890123456","diseases":[{"id":1,"mkb10Code":"A00.0","startDate":"2025-01-15","endDate":null,"prescriptions":"Постельный режим","sickLeaveIssued":true}]}
+                                            """)),
+                            @Content(mediaType = "text/csv",
+                                    examples = @ExampleObject(name = "Пример CSV", value = """
+                                            patient_id,last_name,first_name,middle_name,gender,birth_date,insurance_number,disease_id,mkb10_code,start_date,end_date,prescriptions,sick_leave_issued
+                                            1,Иванов,Иван,Иванович,М,1990-01-01,1234567890123456,1,A00.0,2025-01-15,,Постельный режим,true
+                                            """))
+                    }),
+            @ApiResponse(responseCode = "400", description = "Неподдерживаемый формат",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Неподдерживаемый формат", value = """
+                                    {
+                                        "message": "Формат выгрузки xml не поддерживается, допустимо: ndjson, csv"
+                                    }
+                                    """)))
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @Parameter(description = "Формат выгрузки: ndjson или csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format) {
+        PatientExportService.Format exportFormat = PatientExportService.Format.of(format);
+        logger.info("Exporting patient registry as {}", exportFormat);
+        StreamingResponseBody body = out -> patientExportService.exportPatients(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"patients." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
     @Operation(summary = "Получить пациента по ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Пациент найден",
@@ -109,6 +361,7 @@ public class PatientController {
                                         "diseases": []
                                     }
                                     """))),
+            @ApiResponse(responseCode = "304", description = "Запись не изменилась с версии из If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Пациент не найден",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
@@ -120,9 +373,18 @@ public class PatientController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<Patient> getPatientById(
-            @Parameter(description = "ID пациента", example = "1") @PathVariable Long id) {
+            @Parameter(description = "ID пациента", example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag ранее полученной версии", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Fetching patient with ID: {}", id);
-        return ResponseEntity.ok(patientService.getPatientById(id));
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(patientService.getPatientVersion(id));
+            if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        Patient patient = patientService.getPatientById(id);
+        return ResponseEntity.ok().eTag(ETags.of(patient.getVersion())).body(patient);
     }
 
     @Operation(summary = "Создать нового пациента")
@@ -197,6 +459,44 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedPatient);
     }
 
+    @Operation(summary = "Импортировать пациентов из NDJSON",
+            description = "Один пациент на строку в формате выгрузки GET /patient/export?format=ndjson. "
+                    + "Записи проверяются и сохраняются порциями; ошибочные строки пропускаются и перечисляются в ответе.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Импорт завершён",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PatientImportResult.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "imported": 2,
+                                        "failed": 1,
+                                        "errors": [
+                                            {
+                                                "line": 3,
+                                                "insuranceNumber": "1234567890123456",
+                                                "message": "Код МКБ-10 Z99.99 не найден"
+                                            }
+                                        ]
+                                    }
+                                    """)))
+    })
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<PatientImportResult> importPatients(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Поток NDJSON в UTF-8",
+                    required = true,
+                    content = @Content(mediaType = "application/x-ndjson",
+                            examples = @ExampleObject(name = "Пример запроса", value = """
+                                    {"lastName":"Иванов","firstName":"Иван","gender":"М","birthDate":"1990-01-01","insuranceNumber":"1234567890123456","diseases":[{"mkb10Code":"A00.0","startDate":"2025-01-15","prescriptions":"Постельный режим","sickLeaveIssued":true}]}
+                                    {"lastName":"Петрова","firstName":"Анна","gender":"Ж","birthDate":"1985-05-12","insuranceNumber":"9876543210987654","diseases":[]}
+                                    """)))
+            InputStream body) throws IOException {
+        logger.info("Importing patients from NDJSON stream");
+        PatientImportResult result = patientImportService.importPatients(body);
+        logger.info("Imported {} patients, rejected {}", result.imported(), result.failed());
+        return ResponseEntity.ok(result);
+    }
+
     @Operation(summary = "Обновить данные пациента")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Пациент обновлён",
@@ -233,6 +533,15 @@ public class PatientController {
                                         "message": "Фамилия не может быть пустой"
                                     }
                                     """))),
+            @ApiResponse(responseCode = "412", description = "Запись изменена после получения ETag из If-Match",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Версия устарела", value = """
+                                    {
+                                        "message": "Запись изменена другим запросом: текущая версия 4"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "428", description = "Не передан If-Match, когда он обязателен"),
             @ApiResponse(responseCode = "404", description = "Пациент не найден",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
@@ -245,6 +554,8 @@ public class PatientController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updatePatient(
             @Parameter(description = "ID пациента", example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag изменяемой записи", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Обновлённые данные пациента",
                     required = true,
@@ -274,18 +585,92 @@ public class PatientController {
             @Valid @RequestBody Patient patient) {
         logger.info("Updating patient with ID: {}", id);
         try {
-            Patient updatedPatient = patientService.updatePatient(id, patient);
+            Patient updatedPatient = patientService.updatePatient(id, patient, expectedVersion(ifMatch));
             logger.info("Updated patient with ID: {}", updatedPatient.getId());
-            return ResponseEntity.ok(updatedPatient);
+            return ResponseEntity.ok().eTag(ETags.of(updatedPatient.getVersion())).body(updatedPatient);
         } catch (ValidationException e) {
             logger.error("Validation error while updating patient with ID: {}", id, e);
             return ResponseEntity.badRequest().body(new GlobalExceptionHandler.ErrorResponse(e.getMessage()));
         }
     }
 
+    @Operation(summary = "Частично обновить данные пациента",
+            description = "JSON Merge Patch (RFC 7396): передаются только изменяемые поля, null удаляет необязательное поле. "
+                    + "Заболевания не загружаются и не изменяются; в UPDATE попадают только изменённые столбцы.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пациент обновлён",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PatientSummary.class),
+                            examples = @ExampleObject(name = "Пример ответа", value = """
+                                    {
+                                        "id": 1,
+                                        "lastName": "Иванов",
+                                        "firstName": "Иван",
+                                        "middleName": null,
+                                        "gender": "М",
+                                        "birthDate": "1990-01-01",
+                                        "insuranceNumber": "1234567890123456"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "400", description = "Недопустимое поле или значение",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Недопустимое поле", value = """
+                                    {
+                                        "message": "Поле diseases нельзя изменить через PATCH"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "412", description = "Запись изменена после получения ETag из If-Match",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Версия устарела", value = """
+                                    {
+                                        "message": "Запись изменена другим запросом: текущая версия 4"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "428", description = "Не передан If-Match, когда он обязателен"),
+            @ApiResponse(responseCode = "404", description = "Пациент не найден",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Пациент не найден", value = """
+                                    {
+                                        "message": "Пациент с ID 1 не найден"
+                                    }
+                                    """)))
+    })
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<PatientSummary> patchPatient(
+            @Parameter(description = "ID пациента", example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag изменяемой записи", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Изменяемые поля пациента",
+                    required = true,
+                    content = @Content(mediaType = "application/merge-patch+json",
+                            examples = @ExampleObject(name = "Пример запроса", value = """
+                                    {
+                                        "lastName": "Иванов",
+                                        "middleName": null
+                                    }
+                                    """)))
+            @RequestBody JsonNode patch) {
+        logger.info("Patching patient with ID: {}", id);
+        PatientSummary patched = patientService.patchPatient(id, patch, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patched.version())).body(patched);
+    }
+
     @Operation(summary = "Удалить пациента по ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Пациент удалён"),
+            @ApiResponse(responseCode = "412", description = "Запись изменена после получения ETag из If-Match",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
+                            examples = @ExampleObject(name = "Ошибка: Версия устарела", value = """
+                                    {
+                                        "message": "Запись изменена другим запросом: текущая версия 4"
+                                    }
+                                    """))),
+            @ApiResponse(responseCode = "428", description = "Не передан If-Match, когда он обязателен"),
             @ApiResponse(responseCode = "404", description = "Пациент не найден",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class),
@@ -297,10 +682,16 @@ public class PatientController {
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePatient(
-            @Parameter(description = "ID пациента", example = "1") @PathVariable Long id) {
+            @Parameter(description = "ID пациента", example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag удаляемой записи", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Deleting patient with ID: {}", id);
-        patientService.deletePatient(id);
+        patientService.deletePatient(id, expectedVersion(ifMatch));
         logger.info("Deleted patient with ID: {}", id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private Long expectedVersion(String ifMatch) {
+        return ETags.expectedVersion(ifMatch, conditionalRequestProperties.isRequireIfMatch());
+    }
+}
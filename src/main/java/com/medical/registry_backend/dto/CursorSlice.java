@@ -0,0 +1,14 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Страница, выбранная по курсору, без общего числа записей")
+public record CursorSlice<T>(
+        @Schema(description = "Записи страницы") List<T> content,
+        @Schema(description = "Запрошенный размер страницы", example = "100") int size,
+        @Schema(description = "Есть ли следующая страница", example = "true") boolean hasNext,
+        @Schema(description = "Курсор следующей страницы для параметра after; null на последней странице",
+                example = "bGFzdE5hbWUKQVNDCjQyCtCY0LLQsNC90L7Qsg") String nextCursor) {
+}
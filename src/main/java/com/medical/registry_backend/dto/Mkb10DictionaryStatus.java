@@ -0,0 +1,15 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Состояние справочника MKB10 в памяти приложения")
+public record Mkb10DictionaryStatus(
+        @Schema(description = "Число записей в справочнике", example = "14850") int size,
+        @Schema(description = "Выполняется ли обновление в данный момент", example = "false") boolean refreshing,
+        @Schema(description = "Справочник давно не обновлялся из источника", example = "false") boolean stale,
+        @Schema(description = "Время последнего успешного обновления") Instant lastSuccessAt,
+        @Schema(description = "Время последней попытки обновления") Instant lastAttemptAt,
+        @Schema(description = "Ошибка последней попытки обновления") String lastError) {
+}
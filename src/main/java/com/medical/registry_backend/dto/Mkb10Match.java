@@ -0,0 +1,10 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Запись МКБ-10, найденная полнотекстовым поиском, и её ранг")
+public record Mkb10Match(
+        @Schema(description = "Код МКБ-10", example = "A00.0") String code,
+        @Schema(description = "Наименование", example = "Холера") String name,
+        @Schema(description = "Ранг совпадения: чем больше, тем выше в выдаче", example = "0.0607927") double rank) {
+}
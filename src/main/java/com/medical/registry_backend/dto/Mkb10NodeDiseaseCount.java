@@ -0,0 +1,10 @@
+package com.medical.registry_backend.dto;
+
+import com.medical.registry_backend.entity.Mkb10Node;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Число заболеваний с кодами из поддерева узла МКБ-10")
+public record Mkb10NodeDiseaseCount(
+        @Schema(description = "Узел иерархии") Mkb10Node node,
+        @Schema(description = "Число заболеваний с кодом самого узла или его потомков", example = "42") long diseaseCount) {
+}
@@ -0,0 +1,24 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Задача обновления справочника MKB10 из источника")
+public record Mkb10RefreshJob(
+        @Schema(description = "Идентификатор задачи", example = "3f1c2d9e-5b7a-4c1e-9a51-0f6d2b8e7c11") String id,
+        @Schema(description = "Состояние задачи", example = "RUNNING") State state,
+        @Schema(description = "Время запуска") Instant startedAt,
+        @Schema(description = "Время завершения; отсутствует, пока задача выполняется") Instant finishedAt,
+        @Schema(description = "Длительность в миллисекундах: текущая для выполняющейся задачи", example = "1240") long durationMs,
+        @Schema(description = "Разобрано корректных записей источника на данный момент", example = "10716") int parsedRows,
+        @Schema(description = "Сколько запросов на обновление присоединилось к этой задаче", example = "0") int joinedRequests,
+        @Schema(description = "Итог слияния с таблицей; отсутствует, если слияние не выполнялось") Mkb10UpdateResult result,
+        @Schema(description = "Пояснение к итогу или текст ошибки") String message) {
+
+    public enum State {
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
@@ -0,0 +1,17 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Запрос на пакетное получение записей MKB10 по кодам")
+public record Mkb10ResolveRequest(
+        @Schema(description = "Коды MKB10", example = "[\"A00.0\", \"J06.9\"]")
+        @NotEmpty(message = "Список кодов не может быть пустым")
+        @Size(max = Mkb10ResolveRequest.MAX_CODES, message = "За один запрос можно передать не более " + Mkb10ResolveRequest.MAX_CODES + " кодов")
+        List<String> codes) {
+
+    public static final int MAX_CODES = 1000;
+}
@@ -0,0 +1,12 @@
+package com.medical.registry_backend.dto;
+
+import com.medical.registry_backend.entity.Mkb10;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Результат пакетного получения записей MKB10")
+public record Mkb10ResolveResult(
+        @Schema(description = "Найденные записи в порядке запроса, без повторов") List<Mkb10> found,
+        @Schema(description = "Коды, отсутствующие в справочнике", example = "[\"Z99.99\"]") List<String> missing) {
+}
@@ -0,0 +1,16 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Итог обновления справочника MKB10")
+public record Mkb10UpdateResult(
+        @Schema(description = "Добавлено записей", example = "12") int inserted,
+        @Schema(description = "Изменено наименований", example = "3") int updated,
+        @Schema(description = "Удалено записей", example = "1") int deleted,
+        @Schema(description = "Записей без изменений", example = "14850") int unchanged,
+        @Schema(description = "Отсутствуют в источнике, но оставлены из-за ссылок из заболеваний", example = "0") int retained) {
+
+    public boolean hasChanges() {
+        return inserted > 0 || updated > 0 || deleted > 0;
+    }
+}
@@ -0,0 +1,10 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Ошибка импорта отдельной записи")
+public record PatientImportError(
+        @Schema(description = "Номер строки во входном потоке", example = "17") long line,
+        @Schema(description = "Номер полиса из записи, если удалось прочитать", example = "1234567890123456") String insuranceNumber,
+        @Schema(description = "Причина отказа", example = "Код МКБ-10 Z99.99 не найден") String message) {
+}
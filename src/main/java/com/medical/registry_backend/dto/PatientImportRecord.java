@@ -0,0 +1,33 @@
+package com.medical.registry_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Строка NDJSON при импорте пациентов. Совпадает с форматом выгрузки
+ * {@code GET /patient/export?format=ndjson}; идентификаторы игнорируются.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Schema(description = "Пациент в строке NDJSON для импорта")
+public record PatientImportRecord(
+        @Schema(example = "Иванов") String lastName,
+        @Schema(example = "Иван") String firstName,
+        @Schema(example = "Иванович") String middleName,
+        @Schema(example = "М") String gender,
+        @Schema(example = "1990-01-01") LocalDate birthDate,
+        @Schema(example = "1234567890123456") String insuranceNumber,
+        List<DiseaseRecord> diseases) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Schema(description = "Заболевание пациента в строке NDJSON")
+    public record DiseaseRecord(
+            @Schema(example = "A00.0") String mkb10Code,
+            @Schema(example = "2025-01-15") LocalDate startDate,
+            @Schema(example = "2025-02-10") LocalDate endDate,
+            @Schema(example = "Постельный режим") String prescriptions,
+            @Schema(example = "true") Boolean sickLeaveIssued) {
+    }
+}
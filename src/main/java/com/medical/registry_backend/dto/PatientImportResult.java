@@ -0,0 +1,12 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Итог импорта пациентов")
+public record PatientImportResult(
+        @Schema(description = "Сколько пациентов сохранено", example = "99998") long imported,
+        @Schema(description = "Сколько записей отклонено", example = "2") long failed,
+        @Schema(description = "Ошибки по записям; не больше patient.import.max-reported-errors") List<PatientImportError> errors) {
+}
@@ -0,0 +1,9 @@
+package com.medical.registry_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Пациент, найденный нечётким поиском, и сходство с запросом")
+public record PatientMatch(
+        @Schema(description = "Краткие сведения о пациенте") PatientSummary patient,
+        @Schema(description = "Сходство по триграммам от 0 до 1", example = "0.67") double score) {
+}
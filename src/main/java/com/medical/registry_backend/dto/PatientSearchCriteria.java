@@ -0,0 +1,32 @@
+package com.medical.registry_backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Критерии поиска пациентов; заданные условия объединяются через И.
+ * Пустые строки приравниваются к отсутствию условия.
+ * @param lastName Начало фамилии без учёта регистра
+ * @param firstName Начало имени без учёта регистра
+ * @param middleName Начало отчества без учёта регистра
+ * @param birthDate Точная дата рождения
+ * @param insuranceNumber Точный номер полиса
+ */
+public record PatientSearchCriteria(String lastName, String firstName, String middleName,
+                                    LocalDate birthDate, String insuranceNumber) {
+
+    public PatientSearchCriteria {
+        lastName = normalize(lastName);
+        firstName = normalize(firstName);
+        middleName = normalize(middleName);
+        insuranceNumber = normalize(insuranceNumber);
+    }
+
+    public boolean isEmpty() {
+        return lastName == null && firstName == null && middleName == null
+                && birthDate == null && insuranceNumber == null;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,29 @@
+package com.medical.registry_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+/**
+ * Краткие сведения о пациенте для списков. Выбирается конструктором прямо в JPQL,
+ * поэтому не попадает в контекст персистентности и не тянет заболевания.
+ */
+@Schema(description = "Краткие сведения о пациенте")
+public record PatientSummary(
+        @Schema(description = "Идентификатор пациента", example = "1") Long id,
+        @Schema(description = "Фамилия пациента", example = "Иванов") String lastName,
+        @Schema(description = "Имя пациента", example = "Алексей") String firstName,
+        @Schema(description = "Отчество пациента", example = "Сергеевич") String middleName,
+        @Schema(description = "Пол пациента (М или Ж)", example = "М") String gender,
+        @Schema(description = "Дата рождения пациента", example = "1985-05-20") LocalDate birthDate,
+        @Schema(description = "Номер страхового полиса (16 цифр)", example = "1310754579565031") String insuranceNumber,
+        @Schema(description = "Версия записи пациента, как в ETag", example = "0") Long version,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @Schema(description = "Число заболеваний; только при diseaseCount=true", example = "2") Long diseaseCount) {
+
+    public PatientSummary(Long id, String lastName, String firstName, String middleName,
+                          String gender, LocalDate birthDate, String insuranceNumber, Long version) {
+        this(id, lastName, firstName, middleName, gender, birthDate, insuranceNumber, version, null);
+    }
+}
@@ -1,21 +1,25 @@
 package com.medical.registry_backend.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "diseases")
 public class Disease {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "diseases_seq")
+    @SequenceGenerator(name = "diseases_seq", sequenceName = "diseases_seq", allocationSize = 50)
     @Schema(description = "Уникальный идентификатор записи о заболевании", example = "1")
     private Long id;
 
@@ -53,6 +57,12 @@ public class Disease {
     @Schema(description = "Выдан ли больничный лист", example = "true")
     private Boolean sickLeaveIssued;
 
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Версия записи; передаётся в ETag", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     public Boolean isSickLeaveIssued() {
         return sickLeaveIssued;
     }
@@ -0,0 +1,40 @@
+package com.medical.registry_backend.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Узел иерархии МКБ-10: класс, блок, рубрика или подрубрика. Путь узла начинается
+ * с пути родителя, поэтому поддерево — это диапазон путей, а предки — префиксы пути.
+ */
+@Data
+@Entity
+@Table(name = "mkb10_node")
+public class Mkb10Node {
+
+    @Id
+    @Schema(description = "Идентификатор узла из источника справочника", example = "3")
+    private Long id;
+
+    @Column(name = "parent_id")
+    @Schema(description = "Идентификатор родительского узла; у классов отсутствует", example = "2")
+    private Long parentId;
+
+    @Column(nullable = false, length = 16)
+    @Schema(description = "Материализованный путь узла", example = "0101A00")
+    private String path;
+
+    @Column(length = 10)
+    @Schema(description = "Код МКБ-10; у классов и блоков отсутствует", example = "A00")
+    private String code;
+
+    @Column(nullable = false, length = 1000)
+    @Schema(description = "Наименование", example = "Холера")
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Schema(description = "Уровень узла", example = "CATEGORY")
+    private Mkb10NodeType type;
+}
@@ -0,0 +1,15 @@
+package com.medical.registry_backend.entity;
+
+/**
+ * Уровень узла в иерархии МКБ-10.
+ */
+public enum Mkb10NodeType {
+    /** Класс, например «Некоторые инфекционные и паразитарные болезни (A00-B99)». */
+    CHAPTER,
+    /** Блок рубрик, например «Кишечные инфекции (A00-A09)». */
+    BLOCK,
+    /** Трёхзначная рубрика, например A00. */
+    CATEGORY,
+    /** Подрубрика, например A00.0 или S02.00. */
+    SUBCATEGORY
+}
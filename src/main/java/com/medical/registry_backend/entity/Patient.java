@@ -2,10 +2,12 @@ package com.medical.registry_backend.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -13,13 +15,15 @@ import java.util.List;
 
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "patients")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Schema(description = "Информация о пациенте")
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     @Schema(description = "Идентификатор пациента", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
 
@@ -52,6 +56,13 @@ public class Patient {
     @Schema(description = "Номер страхового полиса (16 цифр)", example = "1310754579565031")
     private String insuranceNumber;
 
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Версия записи; увеличивается при изменении пациента или его заболеваний и передаётся в ETag",
+            example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
     @Schema(description = "Список заболеваний пациента")
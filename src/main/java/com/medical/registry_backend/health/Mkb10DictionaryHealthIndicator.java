@@ -0,0 +1,41 @@
+package com.medical.registry_backend.health;
+
+import com.medical.registry_backend.dto.Mkb10DictionaryStatus;
+import com.medical.registry_backend.service.Mkb10Service;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Готовность по справочнику MKB10. Входит только в группу readiness:
+ * пустой справочник снимает экземпляр с трафика, но не перезапускает его.
+ * Устаревший справочник считается рабочим, свежесть видна в деталях.
+ */
+@Component
+public class Mkb10DictionaryHealthIndicator implements HealthIndicator {
+
+    private final Mkb10Service mkb10Service;
+
+    public Mkb10DictionaryHealthIndicator(Mkb10Service mkb10Service) {
+        this.mkb10Service = mkb10Service;
+    }
+
+    @Override
+    public Health health() {
+        Mkb10DictionaryStatus status = mkb10Service.getDictionaryStatus();
+        Health.Builder builder = status.size() > 0 ? Health.up() : Health.outOfService();
+        builder.withDetail("size", status.size())
+                .withDetail("refreshing", status.refreshing())
+                .withDetail("stale", status.stale());
+        if (status.lastSuccessAt() != null) {
+            builder.withDetail("lastSuccessAt", status.lastSuccessAt().toString());
+        }
+        if (status.lastAttemptAt() != null) {
+            builder.withDetail("lastAttemptAt", status.lastAttemptAt().toString());
+        }
+        if (status.lastError() != null) {
+            builder.withDetail("lastError", status.lastError());
+        }
+        return builder.build();
+    }
+}
@@ -1,10 +1,15 @@
 package com.medical.registry_backend.repository;
 
 import com.medical.registry_backend.entity.Disease;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
@@ -12,6 +17,21 @@ public interface DiseaseRepository extends JpaRepository<Disease, Long> {
     @EntityGraph(attributePaths = {"mkb10"})
     Page<Disease> findByPatientId(Long patientId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"mkb10"})
+    Window<Disease> findByPatientId(Long patientId, ScrollPosition position, Sort sort, Limit limit);
+
     @EntityGraph(attributePaths = {"mkb10"})
     Optional<Disease> findById(Long id);
+
+    /**
+     * Заболевание пациента с кодом МКБ-10; принадлежность проверяется в том же запросе по внешнему ключу.
+     */
+    @EntityGraph(attributePaths = {"mkb10"})
+    Optional<Disease> findByIdAndPatientId(Long id, Long patientId);
+
+    /**
+     * Текущая версия заболевания пациента без загрузки сущности; для ответа 304 по If-None-Match.
+     */
+    @Query("SELECT d.version FROM Disease d WHERE d.id = :id AND d.patient.id = :patientId")
+    Optional<Long> findVersionByIdAndPatientId(Long id, Long patientId);
 }
\ No newline at end of file
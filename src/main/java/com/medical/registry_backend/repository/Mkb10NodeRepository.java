@@ -0,0 +1,35 @@
+package com.medical.registry_backend.repository;
+
+import com.medical.registry_backend.entity.Mkb10Node;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Запросы к иерархии МКБ-10. Поддерево выбирается диапазоном {@code [from, to)} по индексу
+ * на path: {@code from} — путь узла, {@code to} — тот же путь с увеличенным последним символом.
+ */
+public interface Mkb10NodeRepository extends JpaRepository<Mkb10Node, Long> {
+
+    List<Mkb10Node> findByParentIdIsNullOrderByPath();
+
+    List<Mkb10Node> findByParentIdOrderByPath(Long parentId);
+
+    Optional<Mkb10Node> findFirstByCode(String code);
+
+    List<Mkb10Node> findByPathInOrderByPath(Collection<String> paths);
+
+    @Query("SELECT n FROM Mkb10Node n WHERE n.path >= :from AND n.path < :to ORDER BY n.path")
+    List<Mkb10Node> findSubtree(String from, String to);
+
+    /**
+     * Код может встречаться в нескольких узлах поддерева, поэтому заболевания отбираются
+     * по множеству кодов, а не соединением: каждое считается один раз.
+     */
+    @Query("SELECT COUNT(d) FROM Disease d WHERE d.mkb10.code IN "
+            + "(SELECT n.code FROM Mkb10Node n WHERE n.path >= :from AND n.path < :to)")
+    long countDiseasesInSubtree(String from, String to);
+}
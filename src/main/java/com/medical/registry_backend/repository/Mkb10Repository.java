@@ -1,16 +1,34 @@
 package com.medical.registry_backend.repository;
 
 import com.medical.registry_backend.entity.Mkb10;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface Mkb10Repository extends JpaRepository<Mkb10, String> {
     Optional<Mkb10> findById(String code);
-    @Query("SELECT m FROM Mkb10 m WHERE LOWER(m.code) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(m.name) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Mkb10> findByCodeOrNameContainingIgnoreCase(@Param("search") String search, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Запись справочника и её ранг по полнотекстовому запросу.
+     */
+    interface RankedName {
+        String getCode();
+
+        String getName();
+
+        Double getRank();
+    }
+
+    /**
+     * Полнотекстовый поиск по наименованию с морфологией конфигурации {@code russian}
+     * (только PostgreSQL). Совпадения отбираются по GIN-индексу на колонке name_tsv
+     * и упорядочиваются по ts_rank.
+     * @param query Запрос в синтаксисе websearch_to_tsquery: слова, «фразы в кавычках», -исключения, or
+     */
+    @Query(value = "SELECT m.code AS code, m.name AS name, CAST(ts_rank(m.name_tsv, q) AS double precision) AS rank "
+            + "FROM mkb10 m, websearch_to_tsquery('russian', :query) q WHERE m.name_tsv @@ q "
+            + "ORDER BY rank DESC, m.code LIMIT :limit", nativeQuery = true)
+    List<RankedName> findByNameFullText(String query, int limit);
+}
@@ -1,17 +1,123 @@
 package com.medical.registry_backend.repository;
 
+import com.medical.registry_backend.dto.PatientSummary;
 import com.medical.registry_backend.entity.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+
+public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
+
+    /**
+     * ФИО для нечёткого поиска; выражение совпадает с GIN-индексом idx_patients_name_trgm.
+     */
+    String TRIGRAM_NAME = "translate(lower(p.last_name || ' ' || p.first_name || ' ' "
+            + "|| coalesce(p.middle_name, '')), 'ё', 'е')";
+
+    /**
+     * Идентификатор пациента и сходство его ФИО с запросом.
+     */
+    interface NameScore {
+        Long getId();
+
+        Double getScore();
+    }
 
-public interface PatientRepository extends JpaRepository<Patient, Long> {
     @EntityGraph(attributePaths = {"diseases", "diseases.mkb10"})
     Optional<Patient> findById(Long id);
 
+    /**
+     * Пациент без заболеваний, для изменения отдельных полей.
+     */
+    @Query("SELECT p FROM Patient p WHERE p.id = :id")
+    Optional<Patient> findWithoutDiseasesById(Long id);
+
+    /**
+     * Страница идентификаторов пациентов. LIMIT/OFFSET применяются в БД,
+     * так как в запросе нет выборки коллекций.
+     */
+    @Query(value = "SELECT p.id FROM Patient p", countQuery = "SELECT COUNT(p) FROM Patient p")
+    Page<Long> findIdPage(Pageable pageable);
+
+    /**
+     * Пациенты с заболеваниями и кодами MKB10 по списку идентификаторов одним запросом.
+     * Порядок результата не определён.
+     */
     @EntityGraph(attributePaths = {"diseases", "diseases.mkb10"})
-    Page<Patient> findAll(Pageable pageable);
-}
\ No newline at end of file
+    List<Patient> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Номера полисов из списка, которые уже заняты.
+     */
+    @Query("SELECT p.insuranceNumber FROM Patient p WHERE p.insuranceNumber IN :numbers")
+    Set<String> findExistingInsuranceNumbers(Collection<String> numbers);
+
+    /**
+     * Страница кратких сведений о пациентах без заболеваний.
+     */
+    @Query(value = "SELECT new com.medical.registry_backend.dto.PatientSummary("
+            + "p.id, p.lastName, p.firstName, p.middleName, p.gender, p.birthDate, p.insuranceNumber, p.version) "
+            + "FROM Patient p",
+            countQuery = "SELECT COUNT(p) FROM Patient p")
+    Page<PatientSummary> findSummaryPage(Pageable pageable);
+
+    /**
+     * Страница кратких сведений о пациентах с числом заболеваний, посчитанным в БД.
+     */
+    @Query(value = "SELECT new com.medical.registry_backend.dto.PatientSummary("
+            + "p.id, p.lastName, p.firstName, p.middleName, p.gender, p.birthDate, p.insuranceNumber, p.version, "
+            + "(SELECT COUNT(d) FROM Disease d WHERE d.patient = p)) "
+            + "FROM Patient p",
+            countQuery = "SELECT COUNT(p) FROM Patient p")
+    Page<PatientSummary> findSummaryPageWithDiseaseCount(Pageable pageable);
+
+    /**
+     * Краткие сведения о пациентах по списку идентификаторов.
+     */
+    @Query("SELECT new com.medical.registry_backend.dto.PatientSummary("
+            + "p.id, p.lastName, p.firstName, p.middleName, p.gender, p.birthDate, p.insuranceNumber, p.version) "
+            + "FROM Patient p WHERE p.id IN :ids")
+    List<PatientSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    /**
+     * Краткие сведения обо всех пациентах; для нечёткого поиска без pg_trgm.
+     */
+    @Query("SELECT new com.medical.registry_backend.dto.PatientSummary("
+            + "p.id, p.lastName, p.firstName, p.middleName, p.gender, p.birthDate, p.insuranceNumber, p.version) "
+            + "FROM Patient p")
+    List<PatientSummary> findAllSummaries();
+
+    /**
+     * Лучшие совпадения ФИО с запросом по триграммам (только PostgreSQL с pg_trgm).
+     * Оператор {@code <%} отбирает кандидатов по GIN-индексу с порогом word_similarity_threshold.
+     * @param query Запрос в нижнем регистре с Ё, заменённой на Е
+     */
+    @Query(value = "SELECT p.id AS id, word_similarity(:query, " + TRIGRAM_NAME + ") AS score "
+            + "FROM patients p WHERE :query <% " + TRIGRAM_NAME + " "
+            + "ORDER BY score DESC, p.id LIMIT :limit", nativeQuery = true)
+    List<NameScore> findByNameTrigrams(String query, int limit);
+
+    /**
+     * Текущая версия пациента без загрузки сущности и заболеваний; для ответа 304 по If-None-Match.
+     */
+    @Query("SELECT p.version FROM Patient p WHERE p.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Окно пациентов после позиции курсора без выборки заболеваний.
+     * Условие по ключу сортировки заменяет OFFSET, COUNT не выполняется.
+     */
+    Window<Patient> findBy(ScrollPosition position, Sort sort, Limit limit);
+}
@@ -0,0 +1,60 @@
+package com.medical.registry_backend.repository;
+
+import com.medical.registry_backend.dto.PatientSearchCriteria;
+import com.medical.registry_backend.entity.Patient;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Условия поиска пациентов. Префиксы ФИО сравниваются как {@code lower(столбец) LIKE 'префикс%'},
+ * что совпадает с выражениями функциональных индексов поиска (changeset 8).
+ */
+public final class PatientSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private PatientSpecifications() {
+    }
+
+    public static Specification<Patient> matching(PatientSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.insuranceNumber() != null) {
+                predicates.add(cb.equal(root.get("insuranceNumber"), criteria.insuranceNumber()));
+            }
+            if (criteria.birthDate() != null) {
+                predicates.add(cb.equal(root.get("birthDate"), criteria.birthDate()));
+            }
+            addPrefix(predicates, root, cb, "lastName", criteria.lastName());
+            addPrefix(predicates, root, cb, "firstName", criteria.firstName());
+            addPrefix(predicates, root, cb, "middleName", criteria.middleName());
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static void addPrefix(List<Predicate> predicates, Root<Patient> root, CriteriaBuilder cb,
+                                  String attribute, String prefix) {
+        if (prefix == null) {
+            return;
+        }
+        String pattern = escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%";
+        predicates.add(cb.like(cb.lower(root.get(attribute)), pattern, ESCAPE));
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.medical.registry_backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Потоковый разбор CSV по RFC 4180: поля в кавычках могут содержать запятые,
+ * переводы строк и удвоенные кавычки. В памяти держится только текущая строка,
+ * значения полей материализуются в {@link String} лишь по запросу обработчика.
+ */
+public final class CsvStreamParser {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private CsvStreamParser() {
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void onRow(Row row) throws IOException;
+    }
+
+    /**
+     * Текущая строка CSV. Объект переиспользуется между вызовами обработчика,
+     * поэтому сохранять ссылку на него нельзя.
+     */
+    public static final class Row {
+        private final StringBuilder chars = new StringBuilder(256);
+        private int[] fieldEnds = new int[16];
+        private int fieldCount;
+        private long lineNumber;
+
+        public int fieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * Номер строки файла, с которой начинается запись (с единицы).
+         */
+        public long lineNumber() {
+            return lineNumber;
+        }
+
+        public String field(int index) {
+            if (index < 0 || index >= fieldCount) {
+                return "";
+            }
+            return chars.substring(start(index), fieldEnds[index]);
+        }
+
+        public boolean isEmpty(int index) {
+            return index >= fieldCount || start(index) == fieldEnds[index];
+        }
+
+        private int start(int index) {
+            return index == 0 ? 0 : fieldEnds[index - 1];
+        }
+
+        private void endField() {
+            if (fieldCount == fieldEnds.length) {
+                fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            }
+            fieldEnds[fieldCount++] = chars.length();
+        }
+
+        private void reset(long line) {
+            chars.setLength(0);
+            fieldCount = 0;
+            lineNumber = line;
+        }
+
+        private boolean isBlank() {
+            return fieldCount == 1 && fieldEnds[0] == 0;
+        }
+    }
+
+    private enum State { FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED }
+
+    /**
+     * Разбирает поток и передаёт обработчику каждую непустую строку.
+     * @return Число переданных строк
+     */
+    public static long parse(Reader reader, RowHandler handler) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        Row row = new Row();
+        State state = State.FIELD_START;
+        long line = 1;
+        long rows = 0;
+        boolean pendingCarriageReturn = false;
+        row.reset(line);
+
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (pendingCarriageReturn) {
+                    pendingCarriageReturn = false;
+                    if (c == '\n') {
+                        continue;
+                    }
+                }
+                switch (state) {
+                    case QUOTED -> {
+                        if (c == '"') {
+                            state = State.QUOTE_IN_QUOTED;
+                        } else {
+                            if (c == '\n') {
+                                line++;
+                            }
+                            row.chars.append(c);
+                        }
+                    }
+                    case QUOTE_IN_QUOTED -> {
+                        if (c == '"') {
+                            row.chars.append('"');
+                            state = State.QUOTED;
+                        } else {
+                            state = State.UNQUOTED;
+                            i--;
+                        }
+                    }
+                    case FIELD_START, UNQUOTED -> {
+                        if (c == '"' && state == State.FIELD_START) {
+                            state = State.QUOTED;
+                        } else if (c == ',') {
+                            row.endField();
+                            state = State.FIELD_START;
+                        } else if (c == '\n' || c == '\r') {
+                            pendingCarriageReturn = c == '\r';
+                            rows += emit(row, handler);
+                            row.reset(++line);
+                            state = State.FIELD_START;
+                        } else {
+                            row.chars.append(c);
+                            state = State.UNQUOTED;
+                        }
+                    }
+                }
+            }
+        }
+        if (state != State.FIELD_START || row.fieldCount > 0 || row.chars.length() > 0) {
+            rows += emit(row, handler);
+        }
+        return rows;
+    }
+
+    private static int emit(Row row, RowHandler handler) throws IOException {
+        row.endField();
+        if (row.isBlank()) {
+            return 0;
+        }
+        handler.onRow(row);
+        return 1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.medical.registry_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Определение СУБД для выбора между запросами, использующими возможности PostgreSQL,
+ * и их реализацией в приложении.
+ */
+final class Databases {
+
+    private static final Logger logger = LoggerFactory.getLogger(Databases.class);
+
+    private Databases() {
+    }
+
+    /**
+     * БД определяется по метаданным соединения, а не по диалекту Hibernate: тестовая H2
+     * может работать с диалектом PostgreSQL, но расширений и конфигураций PostgreSQL в ней нет.
+     *
+     * @return {@code null}, если метаданные прочитать не удалось; такой результат нельзя кэшировать,
+     * иначе один сбой соединения при старте навсегда оставит PostgreSQL без индексных запросов
+     */
+    static Boolean detectPostgreSql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(JdbcUtils.commonDatabaseName(product));
+        } catch (MetaDataAccessException e) {
+            logger.warn("Could not detect database product, will retry on next use: {}", e.getMessage());
+            return null;
+        }
+    }
+}
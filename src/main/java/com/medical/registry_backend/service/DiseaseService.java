@@ -1,13 +1,50 @@
 package com.medical.registry_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medical.registry_backend.dto.CursorSlice;
 import com.medical.registry_backend.entity.Disease;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 public interface DiseaseService {
     Disease saveDisease(Long patientId, Disease disease);
-    Disease updateDisease(Long patientId, Long diseaseId, Disease disease);
+
+    /**
+     * Обновляет заболевание, если его версия совпадает с ожидаемой.
+     * Любое изменение заболеваний пациента увеличивает и версию пациента.
+     * @param expectedVersion Версия заболевания из If-Match или null без проверки
+     * @throws org.springframework.web.server.ResponseStatusException 412, если версия изменилась
+     */
+    Disease updateDisease(Long patientId, Long diseaseId, Disease disease, Long expectedVersion);
+
+    /**
+     * Частично обновляет заболевание по JSON Merge Patch (RFC 7396).
+     * В UPDATE попадают только изменённые столбцы.
+     * @param patch Объект с изменяемыми полями; null удаляет необязательное поле (endDate)
+     * @param expectedVersion Версия заболевания из If-Match или null без проверки
+     */
+    Disease patchDisease(Long patientId, Long diseaseId, JsonNode patch, Long expectedVersion);
     Disease getDiseaseById(Long patientId, Long diseaseId);
+
+    /**
+     * Текущая версия заболевания пациента (ETag) без загрузки сущности.
+     * @throws jakarta.persistence.EntityNotFoundException Если у пациента нет такого заболевания
+     */
+    Long getDiseaseVersion(Long patientId, Long diseaseId);
     Page<Disease> getDiseasesByPatientId(Long patientId, Pageable pageable);
-    void deleteDisease(Long patientId, Long diseaseId);
+
+    /**
+     * Получает страницу заболеваний пациента по курсору (keyset) без подсчёта общего числа записей.
+     * @param after Курсор из предыдущей страницы или пустая строка для первой страницы
+     * @param sort Сортировка первой страницы: id или startDate
+     * @param size Размер страницы
+     */
+    CursorSlice<Disease> getDiseasesByPatientIdAfter(Long patientId, String after, Sort sort, int size);
+
+    /**
+     * Удаляет заболевание, если его версия совпадает с ожидаемой.
+     * @param expectedVersion Версия заболевания из If-Match или null без проверки
+     */
+    void deleteDisease(Long patientId, Long diseaseId, Long expectedVersion);
 }
\ No newline at end of file
@@ -1,38 +1,67 @@
 package com.medical.registry_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.registry_backend.dto.CursorSlice;
 import com.medical.registry_backend.entity.Disease;
 import com.medical.registry_backend.entity.Mkb10;
 import com.medical.registry_backend.entity.Patient;
 import com.medical.registry_backend.repository.DiseaseRepository;
 import com.medical.registry_backend.repository.Mkb10Repository;
 import com.medical.registry_backend.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
 @Service
 public class DiseaseServiceImpl implements DiseaseService {
     private static final Logger logger = LoggerFactory.getLogger(DiseaseServiceImpl.class);
 
+    private static final Map<String, Function<String, Object>> CURSOR_SORT_KEYS = Map.of(
+            "startDate", LocalDate::parse);
+
+    private static final Set<String> PATCHABLE_FIELDS =
+            Set.of("mkb10", "startDate", "endDate", "prescriptions", "sickLeaveIssued");
+    private static final Set<String> REQUIRED_FIELDS =
+            Set.of("mkb10", "startDate", "prescriptions", "sickLeaveIssued");
+
     private final DiseaseRepository diseaseRepository;
     private final PatientRepository patientRepository;
     private final Mkb10Repository mkb10Repository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
 
-    public DiseaseServiceImpl(DiseaseRepository diseaseRepository, PatientRepository patientRepository, Mkb10Repository mkb10Repository) {
+    public DiseaseServiceImpl(DiseaseRepository diseaseRepository, PatientRepository patientRepository, Mkb10Repository mkb10Repository,
+                              ObjectMapper objectMapper, Validator validator, EntityManager entityManager) {
         this.diseaseRepository = diseaseRepository;
         this.patientRepository = patientRepository;
         this.mkb10Repository = mkb10Repository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
     }
 
     @Override
     @Transactional
     public Disease saveDisease(Long patientId, Disease disease) {
         logger.info("Saving disease for patient ID: {}", patientId);
-        Patient patient = patientRepository.findById(patientId)
+        Patient patient = patientRepository.findWithoutDiseasesById(patientId)
                 .orElseThrow(() -> {
                     logger.error("Patient with ID {} not found", patientId);
                     return new EntityNotFoundException("Пациент с ID " + patientId + " не найден");
@@ -48,24 +77,17 @@ public class DiseaseServiceImpl implements DiseaseService {
         disease.setPatient(patient);
         disease.setMkb10(mkb10);
         Disease savedDisease = diseaseRepository.save(disease);
+        touchPatient(patient);
         logger.info("Saved disease with ID: {}", savedDisease.getId());
         return savedDisease;
     }
 
     @Override
     @Transactional
-    public Disease updateDisease(Long patientId, Long diseaseId, Disease disease) {
+    public Disease updateDisease(Long patientId, Long diseaseId, Disease disease, Long expectedVersion) {
         logger.info("Updating disease ID: {} for patient ID: {}", diseaseId, patientId);
-        Disease existingDisease = diseaseRepository.findById(diseaseId)
-                .orElseThrow(() -> {
-                    logger.error("Disease with ID {} not found", diseaseId);
-                    return new EntityNotFoundException("Заболевание с ID " + diseaseId + " не найдено");
-                });
-
-        if (!existingDisease.getPatient().getId().equals(patientId)) {
-            logger.error("Disease ID {} does not belong to patient ID {}", diseaseId, patientId);
-            throw new IllegalArgumentException("Заболевание не принадлежит пациенту с ID " + patientId);
-        }
+        Disease existingDisease = findPatientDisease(patientId, diseaseId);
+        VersionPrecondition.check(expectedVersion, existingDisease.getVersion());
 
         Mkb10 mkb10 = mkb10Repository.findById(disease.getMkb10().getCode())
                 .orElseThrow(() -> {
@@ -84,6 +106,7 @@ public class DiseaseServiceImpl implements DiseaseService {
 
         try {
             Disease updatedDisease = diseaseRepository.save(existingDisease);
+            touchPatient(updatedDisease.getPatient());
             logger.info("Updated disease with ID: {}", updatedDisease.getId());
             return updatedDisease;
         } catch (Exception e) {
@@ -92,56 +115,112 @@ public class DiseaseServiceImpl implements DiseaseService {
         }
     }
 
+    @Override
+    @Transactional
+    public Disease patchDisease(Long patientId, Long diseaseId, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching disease ID: {} for patient ID: {}", diseaseId, patientId);
+        Disease disease = findPatientDisease(patientId, diseaseId);
+        VersionPrecondition.check(expectedVersion, disease.getVersion());
+
+        JsonMergePatch.apply(objectMapper, validator, patch, disease, PATCHABLE_FIELDS, REQUIRED_FIELDS);
+        if (patch.has("mkb10")) {
+            String code = disease.getMkb10().getCode();
+            if (code == null || code.isBlank()) {
+                throw new IllegalArgumentException("Код МКБ-10 обязателен");
+            }
+            Mkb10 mkb10 = mkb10Repository.findById(code)
+                    .orElseThrow(() -> {
+                        logger.error("Mkb10 code {} not found", code);
+                        return new EntityNotFoundException("Код МКБ-10 " + code + " не найден");
+                    });
+            disease.setMkb10(mkb10);
+        }
+        touchPatient(disease.getPatient());
+        logger.info("Patched disease with ID: {}", diseaseId);
+        return disease;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Disease getDiseaseById(Long patientId, Long diseaseId) {
         logger.info("Fetching disease ID: {} for patient ID: {}", diseaseId, patientId);
-        Disease disease = diseaseRepository.findById(diseaseId)
-                .orElseThrow(() -> {
-                    logger.error("Disease with ID {} not found", diseaseId);
-                    return new EntityNotFoundException("Заболевание с ID " + diseaseId + " не найдено");
-                });
-
-        if (!disease.getPatient().getId().equals(patientId)) {
-            logger.error("Disease ID {} does not belong to patient ID {}", diseaseId, patientId);
-            throw new IllegalArgumentException("Заболевание не принадлежит пациенту с ID " + patientId);
-        }
+        Disease disease = findPatientDisease(patientId, diseaseId);
 
         logger.info("Found disease with ID: {}", diseaseId);
         return disease;
     }
 
+    @Override
+    public Long getDiseaseVersion(Long patientId, Long diseaseId) {
+        return diseaseRepository.findVersionByIdAndPatientId(diseaseId, patientId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Заболевание с ID " + diseaseId + " у пациента с ID " + patientId + " не найдено"));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Disease> getDiseasesByPatientId(Long patientId, Pageable pageable) {
         logger.info("Fetching all diseases for patient ID: {} with pageable: {}", patientId, pageable);
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> {
-                    logger.error("Patient with ID {} not found", patientId);
-                    return new EntityNotFoundException("Пациент с ID " + patientId + " не найден");
-                });
+        if (!patientRepository.existsById(patientId)) {
+            logger.error("Patient with ID {} not found", patientId);
+            throw new EntityNotFoundException("Пациент с ID " + patientId + " не найден");
+        }
 
         Page<Disease> diseases = diseaseRepository.findByPatientId(patientId, pageable);
         logger.info("Found {} diseases for patient ID: {}: {}", diseases.getTotalElements(), patientId, diseases.getContent());
         return diseases;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<Disease> getDiseasesByPatientIdAfter(Long patientId, String after, Sort sort, int size) {
+        logger.info("Fetching diseases for patient ID: {} after cursor: {}, sort: {}, size: {}", patientId, after, sort, size);
+        KeysetCursor cursor = KeysetCursor.of(after, sort, CURSOR_SORT_KEYS);
+        if (!patientRepository.existsById(patientId)) {
+            logger.error("Patient with ID {} not found", patientId);
+            throw new EntityNotFoundException("Пациент с ID " + patientId + " не найден");
+        }
+
+        Window<Disease> window = diseaseRepository.findByPatientId(
+                patientId, cursor.position(), cursor.sort(), KeysetCursor.limit(size));
+        String nextCursor = window.hasNext() ? cursor.next(window.positionAt(window.size() - 1)) : null;
+        return new CursorSlice<>(window.getContent(), size, nextCursor != null, nextCursor);
+    }
+
     @Override
     @Transactional
-    public void deleteDisease(Long patientId, Long diseaseId) {
+    public void deleteDisease(Long patientId, Long diseaseId, Long expectedVersion) {
         logger.info("Deleting disease ID: {} for patient ID: {}", diseaseId, patientId);
-        Disease disease = diseaseRepository.findById(diseaseId)
-                .orElseThrow(() -> {
-                    logger.error("Disease with ID {} not found", diseaseId);
-                    return new EntityNotFoundException("Заболевание с ID " + diseaseId + " не найдено");
-                });
+        Disease disease = findPatientDisease(patientId, diseaseId);
+        VersionPrecondition.check(expectedVersion, disease.getVersion());
+
+        diseaseRepository.delete(disease);
+        touchPatient(disease.getPatient());
+        logger.info("Deleted disease with ID: {}", diseaseId);
+    }
 
-        if (!disease.getPatient().getId().equals(patientId)) {
+    /**
+     * Увеличивает версию пациента при фиксации транзакции: заболевания входят в его ETag,
+     * хотя строка пациента при их изменении не меняется.
+     */
+    private void touchPatient(Patient patient) {
+        entityManager.lock(patient, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    /**
+     * Заболевание пациента одним запросом по (id, patient_id). Только если его нет, второй
+     * запрос отличает чужое заболевание (400) от несуществующего (404).
+     */
+    private Disease findPatientDisease(Long patientId, Long diseaseId) {
+        Optional<Disease> disease = diseaseRepository.findByIdAndPatientId(diseaseId, patientId);
+        if (disease.isPresent()) {
+            return disease.get();
+        }
+        if (diseaseRepository.existsById(diseaseId)) {
             logger.error("Disease ID {} does not belong to patient ID {}", diseaseId, patientId);
             throw new IllegalArgumentException("Заболевание не принадлежит пациенту с ID " + patientId);
         }
-
-        diseaseRepository.delete(disease);
-        logger.info("Deleted disease with ID: {}", diseaseId);
+        logger.error("Disease with ID {} not found", diseaseId);
+        throw new EntityNotFoundException("Заболевание с ID " + diseaseId + " не найдено");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.medical.registry_backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Упрощённый аналог конфигурации {@code russian} полнотекстового поиска PostgreSQL
+ * для БД без неё (H2 в тестах): слова приводятся к нижнему регистру, Ё заменяется на Е,
+ * у слова отсекается самое длинное типичное окончание, если после этого остаётся
+ * не меньше {@link #MIN_STEM} символов. «Холера» и «холеры» дают одну основу «холер».
+ */
+final class FullTextTerms {
+
+    static final int MIN_STEM = 3;
+
+    /**
+     * Окончания в порядке убывания длины, чтобы отсекалось самое длинное.
+     */
+    private static final String[] ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ей", "ую", "юю",
+            "ых", "их", "ам", "ям", "ах", "ях", "ом", "ем", "ов", "ев", "ию", "ия", "ии", "ью",
+            "а", "я", "ы", "и", "о", "е", "у", "ю", "ь", "й"
+    };
+
+    private FullTextTerms() {
+    }
+
+    static String stem(String word) {
+        for (String ending : ENDINGS) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Основы слов текста в порядке появления.
+     */
+    static List<String> of(String text) {
+        List<String> words = Trigrams.words(text);
+        List<String> stems = new ArrayList<>(words.size());
+        for (String word : words) {
+            stems.add(stem(word));
+        }
+        return stems;
+    }
+
+    /**
+     * Ранг документа по запросу: доля слов документа, совпавших с основами запроса,
+     * так что короткое наименование, целиком состоящее из искомых слов, выше длинного.
+     * @return 0, если в документе нет хотя бы одной основы запроса (все слова запроса обязательны)
+     */
+    static double rank(Set<String> query, List<String> document) {
+        if (query.isEmpty() || document.isEmpty()) {
+            return 0;
+        }
+        Set<String> found = new LinkedHashSet<>();
+        int matched = 0;
+        for (String stem : document) {
+            if (query.contains(stem)) {
+                found.add(stem);
+                matched++;
+            }
+        }
+        return found.size() == query.size() ? (double) matched / document.size() : 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.medical.registry_backend.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Применение JSON Merge Patch (RFC 7396) к сущности: поля из патча заменяют значения,
+ * {@code null} удаляет значение, отсутствующие поля не меняются. Изменять можно
+ * только перечисленные поля; обязательные поля нельзя удалить.
+ */
+final class JsonMergePatch {
+
+    private JsonMergePatch() {
+    }
+
+    /**
+     * Применяет патч к {@code target} на месте и проверяет результат ограничениями Bean Validation.
+     * @throws IllegalArgumentException Если патч не объект, затрагивает недопустимое поле,
+     *                                  удаляет обязательное или нарушает ограничения
+     */
+    static <T> T apply(ObjectMapper objectMapper, Validator validator, JsonNode patch, T target,
+                       Set<String> patchable, Set<String> required) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Тело PATCH должно быть JSON-объектом");
+        }
+        Iterator<String> fields = patch.fieldNames();
+        while (fields.hasNext()) {
+            String field = fields.next();
+            if (!patchable.contains(field)) {
+                throw new IllegalArgumentException("Поле " + field + " нельзя изменить через PATCH");
+            }
+            if (patch.get(field).isNull() && required.contains(field)) {
+                throw new IllegalArgumentException("Поле " + field + " обязательно и не может быть удалено");
+            }
+        }
+        try {
+            objectMapper.readerForUpdating(target).readValue(patch);
+        } catch (JsonMappingException e) {
+            String field = e.getPath().isEmpty() ? "" : e.getPath().get(0).getFieldName() + ": ";
+            throw new IllegalArgumentException("Некорректное значение поля " + field + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Некорректное тело PATCH: " + e.getMessage());
+        }
+        Set<String> violations = new TreeSet<>();
+        for (ConstraintViolation<T> violation : validator.validate(target)) {
+            violations.add(violation.getMessage());
+        }
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", violations));
+        }
+        return target;
+    }
+}
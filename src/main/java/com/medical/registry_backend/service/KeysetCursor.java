@@ -0,0 +1,148 @@
+package com.medical.registry_backend.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Непрозрачный курсор постраничного чтения по ключу (keyset): хранит поле сортировки,
+ * направление и значения (поле, id) последней записи страницы. Следующая страница
+ * выбирается условием по этим значениям вместо OFFSET, поэтому стоимость страницы
+ * не зависит от того, насколько далеко продвинулся клиент.
+ * <p>
+ * Сортировать можно только по полям из переданного набора ключей: поля должны быть
+ * NOT NULL, а id всегда добавляется последним для однозначного порядка.
+ */
+public final class KeysetCursor {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final String ID = "id";
+    private static final char SEPARATOR = '\n';
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Map<String, Object> keys;
+
+    private KeysetCursor(String property, Sort.Direction direction, Map<String, Object> keys) {
+        this.property = property;
+        this.direction = direction;
+        this.keys = keys;
+    }
+
+    /**
+     * Разбирает курсор, полученный клиентом с предыдущей страницы. Пустой курсор означает
+     * первую страницу с сортировкой {@code sort}; для непустого сортировка берётся из курсора.
+     * @param token Курсор или пустая строка
+     * @param sort Сортировка первой страницы; не более одного поля помимо id
+     * @param sortKeys Допустимые поля сортировки и разбор их значений из строки
+     * @throws IllegalArgumentException Если курсор повреждён или сортировка не поддерживается
+     */
+    public static KeysetCursor of(String token, Sort sort, Map<String, Function<String, Object>> sortKeys) {
+        if (token == null || token.isBlank()) {
+            return first(sort, sortKeys);
+        }
+        String[] parts;
+        try {
+            parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split(String.valueOf(SEPARATOR), 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+        String property = parts[0];
+        checkSortKey(property, sortKeys);
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (!ID.equals(property)) {
+                if (parts.length < 4) {
+                    throw new IllegalArgumentException("Некорректный курсор");
+                }
+                keys.put(property, sortKeys.get(property).apply(parts[3]));
+            }
+            keys.put(ID, Long.valueOf(parts[2]));
+            return new KeysetCursor(property, Sort.Direction.fromString(parts[1]), keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
+
+    /**
+     * Ограничение размера страницы курсорной выборки.
+     * @throws IllegalArgumentException Если размер вне диапазона 1..{@value #MAX_PAGE_SIZE}
+     */
+    public static Limit limit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return Limit.of(size);
+    }
+
+    private static KeysetCursor first(Sort sort, Map<String, Function<String, Object>> sortKeys) {
+        Sort.Order order = null;
+        for (Sort.Order candidate : sort) {
+            if (ID.equals(candidate.getProperty())) {
+                continue;
+            }
+            if (order != null) {
+                throw new IllegalArgumentException("В режиме курсора допускается сортировка только по одному полю");
+            }
+            order = candidate;
+        }
+        if (order == null) {
+            Sort.Order idOrder = sort.getOrderFor(ID);
+            return new KeysetCursor(ID, idOrder == null ? Sort.Direction.ASC : idOrder.getDirection(), null);
+        }
+        checkSortKey(order.getProperty(), sortKeys);
+        return new KeysetCursor(order.getProperty(), order.getDirection(), null);
+    }
+
+    private static void checkSortKey(String property, Map<String, Function<String, Object>> sortKeys) {
+        if (!ID.equals(property) && !sortKeys.containsKey(property)) {
+            throw new IllegalArgumentException("Сортировка по полю " + property + " не поддерживается в режиме курсора");
+        }
+    }
+
+    /**
+     * Сортировка выборки: поле курсора и id в одном направлении.
+     */
+    public Sort sort() {
+        Sort byId = Sort.by(direction, ID);
+        return ID.equals(property) ? byId : Sort.by(direction, property).and(byId);
+    }
+
+    /**
+     * Позиция, с которой продолжается выборка: начало для первой страницы,
+     * иначе строго после последней записи предыдущей.
+     */
+    public ScrollPosition position() {
+        return keys == null ? ScrollPosition.keyset() : ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Курсор следующей страницы по позиции последней записи текущей.
+     */
+    public String next(ScrollPosition last) {
+        if (!(last instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalStateException("Expected keyset scroll position, got " + last);
+        }
+        Map<String, Object> lastKeys = keyset.getKeys();
+        StringBuilder token = new StringBuilder()
+                .append(property).append(SEPARATOR)
+                .append(direction.name()).append(SEPARATOR)
+                .append(lastKeys.get(ID));
+        if (!ID.equals(property)) {
+            token.append(SEPARATOR).append(lastKeys.get(property));
+        }
+        return ENCODER.encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,148 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Двоичный снимок справочника MKB10, отображаемый в память через {@link FileChannel#map}.
+ * Служит для быстрого старта: справочник читается из отображённого буфера
+ * до первого обращения к БД.
+ * <p>
+ * Формат (big-endian):
+ * <pre>
+ * int    MAGIC
+ * int    count
+ * int[count + 1] смещения кодов
+ * int[count + 1] смещения наименований
+ * byte[] коды в UTF-8, отсортированные побайтно
+ * byte[] наименования в UTF-8
+ * </pre>
+ */
+public final class Mkb10BinarySnapshot {
+
+    static final int MAGIC = 0x4D4B4231;
+    private static final int HEADER_SIZE = 8;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int codeOffsetsBase;
+    private final int nameOffsetsBase;
+    private final int codesBase;
+    private final int namesBase;
+
+    private Mkb10BinarySnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Файл не является снимком справочника МКБ-10");
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(4);
+        long offsetsSize = 4L * (count + 1);
+        if (count < 0 || HEADER_SIZE + 2 * offsetsSize > buffer.capacity()) {
+            throw new IOException("Снимок справочника МКБ-10 повреждён");
+        }
+        this.codeOffsetsBase = HEADER_SIZE;
+        this.nameOffsetsBase = (int) (codeOffsetsBase + offsetsSize);
+        this.codesBase = (int) (nameOffsetsBase + offsetsSize);
+        this.namesBase = codesBase + buffer.getInt(codeOffsetsBase + 4 * count);
+        if (namesBase < codesBase || (long) namesBase + buffer.getInt(nameOffsetsBase + 4 * count) != buffer.capacity()) {
+            throw new IOException("Снимок справочника МКБ-10 повреждён");
+        }
+    }
+
+    /**
+     * Отображает файл снимка в память только для чтения.
+     */
+    public static Mkb10BinarySnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Mkb10BinarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Записывает снимок во временный файл рядом с {@code file} и атомарно заменяет им прежний.
+     * Уже отображённые снимки при этом остаются действительными.
+     */
+    public static void write(Path file, Collection<Mkb10> mkb10List) throws IOException {
+        byte[][] codes = new byte[mkb10List.size()][];
+        byte[][] names = new byte[mkb10List.size()][];
+        Integer[] order = new Integer[codes.length];
+        int i = 0;
+        for (Mkb10 mkb10 : mkb10List) {
+            codes[i] = mkb10.getCode().getBytes(StandardCharsets.UTF_8);
+            names[i] = mkb10.getName().getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+            i++;
+        }
+        Arrays.sort(order, Comparator.comparing(index -> codes[index], Arrays::compareUnsigned));
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path part = Files.createTempFile(dir, "mkb10-", ".bin.part");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(part)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(codes.length);
+                writeOffsets(out, codes, order);
+                writeOffsets(out, names, order);
+                for (int index : order) {
+                    out.write(codes[index]);
+                }
+                for (int index : order) {
+                    out.write(names[index]);
+                }
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Декодирует все записи снимка в порядке кода.
+     */
+    public List<Mkb10> toList() {
+        List<Mkb10> mkb10List = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Mkb10 mkb10 = new Mkb10();
+            mkb10.setCode(decode(codesBase, codeOffsetsBase, i));
+            mkb10.setName(decode(namesBase, nameOffsetsBase, i));
+            mkb10List.add(mkb10);
+        }
+        return mkb10List;
+    }
+
+    private String decode(int blobBase, int offsetsBase, int index) {
+        int start = buffer.getInt(offsetsBase + 4 * index);
+        byte[] bytes = new byte[buffer.getInt(offsetsBase + 4 * (index + 1)) - start];
+        buffer.get(blobBase + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeOffsets(DataOutputStream out, byte[][] values, Integer[] order) throws IOException {
+        int offset = 0;
+        out.writeInt(offset);
+        for (int index : order) {
+            offset += values[index].length;
+            out.writeInt(offset);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Загружает записи справочника в промежуточную таблицу mkb10_staging.
+ * На PostgreSQL используется COPY FROM STDIN, на остальных СУБД (H2 в тестах) —
+ * пакетная вставка JDBC. Записи читаются из источника по одной и отправляются
+ * в БД порциями, а повторяющиеся коды удаляются запросом после загрузки,
+ * поэтому расход памяти не зависит от размера справочника.
+ * Должен вызываться внутри транзакции: на PostgreSQL промежуточная таблица до конца
+ * транзакции закрывается advisory-блокировкой, чтобы обновления с разных экземпляров
+ * приложения выполнялись по очереди, а не конфликтовали по ключам.
+ */
+@Component
+public class Mkb10BulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(Mkb10BulkLoader.class);
+    static final String STAGING_TABLE = "mkb10_staging";
+    static final int BATCH_SIZE = 1000;
+    /**
+     * Блокировка на время транзакции: вторая транзакция ждёт фиксации первой,
+     * а затем видит уже очищенную промежуточную таблицу.
+     */
+    private static final String STAGING_LOCK = "SELECT pg_advisory_xact_lock(hashtext('" + STAGING_TABLE + "'))";
+    /**
+     * Из записей с одинаковым кодом остаётся первая по порядку в источнике.
+     */
+    private static final String DELETE_DUPLICATES = "DELETE FROM " + STAGING_TABLE + " s WHERE EXISTS (SELECT 1 FROM "
+            + STAGING_TABLE + " e WHERE e.code = s.code AND e.line < s.line)";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Mkb10BulkLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Очищает промежуточную таблицу и загружает в неё записи. Повторяющиеся коды
+     * удаляются после загрузки (остаётся первое вхождение). Ошибка чтения источника
+     * пробрасывается как {@link UncheckedIOException}, чтобы транзакция откатилась.
+     * @return Число загруженных строк
+     */
+    public int loadStaging(Mkb10RowSource source) {
+        boolean postgreSql = Boolean.TRUE.equals(jdbcTemplate.execute(
+                (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+        if (postgreSql) {
+            long waitStarted = System.nanoTime();
+            jdbcTemplate.execute(STAGING_LOCK);
+            logger.debug("Acquired {} lock in {} ms", STAGING_TABLE, (System.nanoTime() - waitStarted) / 1_000_000);
+        }
+        jdbcTemplate.update("DELETE FROM " + STAGING_TABLE);
+        long started = System.nanoTime();
+        Integer loaded = jdbcTemplate.execute((ConnectionCallback<Integer>) connection ->
+                postgreSql ? copy(connection, source) : batchInsert(source));
+        int duplicates = jdbcTemplate.update(DELETE_DUPLICATES);
+        if (duplicates > 0) {
+            logger.warn("Skipped {} MKB10 rows with duplicate codes", duplicates);
+        }
+        int staged = (loaded == null ? 0 : loaded) - duplicates;
+        logger.info("Loaded {} MKB10 rows into {} in {} ms", staged, STAGING_TABLE, (System.nanoTime() - started) / 1_000_000);
+        return staged;
+    }
+
+    public void clearStaging() {
+        jdbcTemplate.update("DELETE FROM " + STAGING_TABLE);
+    }
+
+    private int copy(Connection connection, Mkb10RowSource source) throws SQLException {
+        String sql = "COPY " + STAGING_TABLE + " (line, code, name) FROM STDIN WITH (FORMAT csv)";
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE + 1024);
+            long[] line = {0};
+            read(source, row -> {
+                byte[] number = Long.toString(++line[0]).getBytes(StandardCharsets.US_ASCII);
+                buffer.write(number, 0, number.length);
+                buffer.write(',');
+                writeCsvField(buffer, row.getCode());
+                buffer.write(',');
+                writeCsvField(buffer, row.getName());
+                buffer.write('\n');
+                if (buffer.size() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer, sql);
+                }
+            });
+            writeToCopy(copyIn, buffer, sql);
+            return (int) copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private int batchInsert(Mkb10RowSource source) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int[] loaded = {0};
+        read(source, row -> {
+            batch.add(new Object[]{(long) loaded[0] + batch.size() + 1, row.getCode(), row.getName()});
+            if (batch.size() == BATCH_SIZE) {
+                loaded[0] += flush(batch);
+            }
+        });
+        return loaded[0] + flush(batch);
+    }
+
+    private static void read(Mkb10RowSource source, Consumer<Mkb10> sink) {
+        try {
+            source.forEach(sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать источник справочника МКБ-10", e);
+        }
+    }
+
+    private void writeToCopy(CopyIn copyIn, ByteArrayOutputStream buffer, String sql) {
+        if (buffer.size() == 0) {
+            return;
+        }
+        try {
+            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("COPY", sql, e);
+        }
+        buffer.reset();
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + STAGING_TABLE + " (line, code, name) VALUES (?, ?, ?)", batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private static void writeCsvField(ByteArrayOutputStream out, String value) {
+        out.write('"');
+        byte[] bytes = value.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+        out.write('"');
+    }
+}
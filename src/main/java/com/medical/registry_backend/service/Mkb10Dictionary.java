@@ -0,0 +1,73 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый снимок справочника MKB10 целиком: записи в порядке кода,
+ * индекс по коду, n-граммный индекс и префиксное дерево. Строится один раз
+ * после обновления и публикуется атомарной заменой ссылки, поэтому читатели
+ * никогда не видят частично обновлённый справочник.
+ */
+public final class Mkb10Dictionary {
+
+    public static final Mkb10Dictionary EMPTY = build(List.of());
+
+    private final List<Mkb10> entries;
+    private final Map<String, Mkb10> byCode;
+    private final Mkb10SearchIndex searchIndex;
+    private final Mkb10SuggestTrie suggestTrie;
+
+    private Mkb10Dictionary(List<Mkb10> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.byCode = new HashMap<>(entries.size() * 2);
+        for (Mkb10 mkb10 : entries) {
+            byCode.putIfAbsent(mkb10.getCode(), mkb10);
+        }
+        this.searchIndex = Mkb10SearchIndex.build(entries);
+        this.suggestTrie = Mkb10SuggestTrie.build(entries);
+    }
+
+    public static Mkb10Dictionary build(Collection<Mkb10> mkb10List) {
+        List<Mkb10> sorted = new ArrayList<>(mkb10List);
+        sorted.sort(Comparator.comparing(Mkb10::getCode));
+        return new Mkb10Dictionary(sorted);
+    }
+
+    /**
+     * Возвращает запись по коду или {@code null}, если кода нет в справочнике.
+     */
+    public Mkb10 find(String code) {
+        return code == null ? null : byCode.get(code);
+    }
+
+    /**
+     * Все записи в порядке возрастания кода.
+     */
+    public List<Mkb10> entries() {
+        return entries;
+    }
+
+    public List<Mkb10> search(String query) {
+        return searchIndex.search(query);
+    }
+
+    public List<Mkb10> suggest(String prefix, int limit) {
+        return suggestTrie.suggest(prefix, limit);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.dto.Mkb10UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Применяет к таблице mkb10 только разницу с загруженным справочником.
+ * Записи сначала загружаются в mkb10_staging ({@link Mkb10BulkLoader}), затем
+ * тремя операторами сливаются с основной таблицей: изменённые наименования
+ * обновляются, новые коды добавляются, отсутствующие в источнике коды удаляются,
+ * если на них не ссылаются заболевания. Всё выполняется в одной транзакции,
+ * поэтому читатели видят либо старый, либо новый справочник целиком.
+ */
+@Component
+public class Mkb10DictionaryUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(Mkb10DictionaryUpdater.class);
+
+    private static final String UPDATE_CHANGED = """
+            UPDATE mkb10 SET name = (SELECT s.name FROM mkb10_staging s WHERE s.code = mkb10.code)
+            WHERE EXISTS (SELECT 1 FROM mkb10_staging s WHERE s.code = mkb10.code AND s.name <> mkb10.name)""";
+    private static final String INSERT_NEW = """
+            INSERT INTO mkb10 (code, name)
+            SELECT s.code, s.name FROM mkb10_staging s
+            WHERE NOT EXISTS (SELECT 1 FROM mkb10 m WHERE m.code = s.code)""";
+    private static final String COUNT_RETAINED = """
+            SELECT COUNT(*) FROM mkb10 m
+            WHERE NOT EXISTS (SELECT 1 FROM mkb10_staging s WHERE s.code = m.code)
+              AND EXISTS (SELECT 1 FROM diseases d WHERE d.mkb10_code = m.code)""";
+    private static final String DELETE_MISSING = """
+            DELETE FROM mkb10
+            WHERE NOT EXISTS (SELECT 1 FROM mkb10_staging s WHERE s.code = mkb10.code)
+              AND NOT EXISTS (SELECT 1 FROM diseases d WHERE d.mkb10_code = mkb10.code)""";
+
+    private final Mkb10BulkLoader mkb10BulkLoader;
+    private final JdbcTemplate jdbcTemplate;
+
+    public Mkb10DictionaryUpdater(Mkb10BulkLoader mkb10BulkLoader, JdbcTemplate jdbcTemplate) {
+        this.mkb10BulkLoader = mkb10BulkLoader;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Загружает записи из источника и сливает их с основной таблицей.
+     * Если источник не дал ни одной записи, справочник не меняется.
+     */
+    @Transactional
+    public Mkb10UpdateResult apply(Mkb10RowSource source) {
+        long started = System.nanoTime();
+        int staged = mkb10BulkLoader.loadStaging(source);
+        if (staged == 0) {
+            logger.warn("MKB10 staging table is empty, keeping current dictionary");
+            return new Mkb10UpdateResult(0, 0, 0, 0, 0);
+        }
+
+        int updated = jdbcTemplate.update(UPDATE_CHANGED);
+        int inserted = jdbcTemplate.update(INSERT_NEW);
+        Integer retained = jdbcTemplate.queryForObject(COUNT_RETAINED, Integer.class);
+        if (retained != null && retained > 0) {
+            logger.warn("Keeping {} MKB10 codes absent from source because diseases reference them", retained);
+        }
+        int deleted = jdbcTemplate.update(DELETE_MISSING);
+        mkb10BulkLoader.clearStaging();
+
+        Mkb10UpdateResult result = new Mkb10UpdateResult(inserted, updated, deleted,
+                staged - inserted - updated, retained == null ? 0 : retained);
+        logger.info("Merged MKB10 dictionary in {} ms: {}", (System.nanoTime() - started) / 1_000_000, result);
+        return result;
+    }
+}
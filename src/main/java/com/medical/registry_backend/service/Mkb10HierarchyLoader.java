@@ -0,0 +1,114 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Заменяет иерархию МКБ-10 в таблице mkb10_node целиком. На узлы не ссылаются
+ * другие таблицы, поэтому слияние не нужно: старые узлы удаляются и новые
+ * вставляются пакетами по мере разбора источника. Узлы с повторяющимся id или путём
+ * пропускаются запросом (остаётся первое вхождение), поэтому расход памяти
+ * не зависит от размера справочника.
+ */
+@Component
+public class Mkb10HierarchyLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(Mkb10HierarchyLoader.class);
+    static final int BATCH_SIZE = 1000;
+    /**
+     * Пакет выполняется по порядку в одной транзакции, поэтому каждая вставка видит предыдущие.
+     * Приведения типов нужны PostgreSQL: в INSERT ... SELECT тип параметра не выводится из столбца.
+     */
+    private static final String INSERT = """
+            INSERT INTO mkb10_node (id, parent_id, path, code, name, type)
+            SELECT CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR(16)), CAST(? AS VARCHAR(10)),
+                   CAST(? AS VARCHAR(1000)), CAST(? AS VARCHAR(16))
+            WHERE NOT EXISTS (SELECT 1 FROM mkb10_node n WHERE n.id = ? OR n.path = ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Mkb10HierarchyLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM mkb10_node)", Boolean.class));
+    }
+
+    @Transactional
+    public void replace(Collection<Mkb10Node> nodes) {
+        Writer writer = open();
+        nodes.forEach(writer);
+        writer.finish();
+    }
+
+    /**
+     * Начинает замену иерархии. Должен вызываться внутри транзакции, в которой
+     * загружается справочник: старые узлы удаляются при первом принятом узле,
+     * поэтому источник без иерархии оставляет прежнюю.
+     */
+    public Writer open() {
+        return new Writer(jdbcTemplate);
+    }
+
+    /**
+     * Принимает узлы по одному и вставляет их пакетами по {@link #BATCH_SIZE}.
+     */
+    public static class Writer implements Consumer<Mkb10Node> {
+        private final JdbcTemplate jdbcTemplate;
+        private final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        private final long started = System.nanoTime();
+        private boolean cleared;
+        private int inserted;
+
+        Writer(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        public void accept(Mkb10Node node) {
+            if (!cleared) {
+                jdbcTemplate.update("DELETE FROM mkb10_node");
+                cleared = true;
+            }
+            batch.add(new Object[]{node.getId(), node.getParentId(), node.getPath(), node.getCode(),
+                    node.getName(), node.getType().name(), node.getId(), node.getPath()});
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Вставляет оставшиеся узлы.
+         * @return Число вставленных узлов без пропущенных повторов
+         */
+        public int finish() {
+            flush();
+            if (cleared) {
+                logger.info("Replaced MKB10 hierarchy with {} nodes in {} ms", inserted,
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+            return inserted;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            for (int count : jdbcTemplate.batchUpdate(INSERT, batch)) {
+                inserted += Math.max(count, 0);
+            }
+            batch.clear();
+        }
+    }
+}
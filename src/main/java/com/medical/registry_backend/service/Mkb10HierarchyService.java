@@ -0,0 +1,50 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.dto.Mkb10NodeDiseaseCount;
+import com.medical.registry_backend.entity.Mkb10Node;
+
+import java.util.List;
+
+public interface Mkb10HierarchyService {
+
+    /**
+     * Классы МКБ-10 — корни иерархии.
+     * @return Классы в порядке пути
+     */
+    List<Mkb10Node> getChapters();
+
+    /**
+     * @throws jakarta.persistence.EntityNotFoundException Если узел не найден
+     */
+    Mkb10Node getNode(Long id);
+
+    /**
+     * Узел по коду рубрики или подрубрики.
+     * @throws jakarta.persistence.EntityNotFoundException Если узла с таким кодом нет
+     */
+    Mkb10Node getNodeByCode(String code);
+
+    /**
+     * Непосредственные потомки узла в порядке пути.
+     * @throws jakarta.persistence.EntityNotFoundException Если узел не найден
+     */
+    List<Mkb10Node> getChildren(Long id);
+
+    /**
+     * Предки узла от класса до непосредственного родителя.
+     * @throws jakarta.persistence.EntityNotFoundException Если узел не найден
+     */
+    List<Mkb10Node> getAncestors(Long id);
+
+    /**
+     * Узел и все его потомки в порядке пути (обход в глубину).
+     * @throws jakarta.persistence.EntityNotFoundException Если узел не найден
+     */
+    List<Mkb10Node> getSubtree(Long id);
+
+    /**
+     * Число заболеваний с кодами из поддерева узла, например по всему блоку A00-A09.
+     * @throws jakarta.persistence.EntityNotFoundException Если узел не найден
+     */
+    Mkb10NodeDiseaseCount countDiseases(Long id);
+}
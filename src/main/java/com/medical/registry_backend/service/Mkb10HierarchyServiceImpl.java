@@ -0,0 +1,82 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.dto.Mkb10NodeDiseaseCount;
+import com.medical.registry_backend.entity.Mkb10Node;
+import com.medical.registry_backend.repository.Mkb10NodeRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Навигация по иерархии МКБ-10 через материализованный путь: предки выбираются
+ * одним запросом по префиксам пути, поддерево и статистика по нему — одним
+ * диапазонным запросом по индексу на path.
+ */
+@Service
+@Transactional(readOnly = true)
+public class Mkb10HierarchyServiceImpl implements Mkb10HierarchyService {
+
+    private final Mkb10NodeRepository mkb10NodeRepository;
+
+    public Mkb10HierarchyServiceImpl(Mkb10NodeRepository mkb10NodeRepository) {
+        this.mkb10NodeRepository = mkb10NodeRepository;
+    }
+
+    @Override
+    public List<Mkb10Node> getChapters() {
+        return mkb10NodeRepository.findByParentIdIsNullOrderByPath();
+    }
+
+    @Override
+    public Mkb10Node getNode(Long id) {
+        return mkb10NodeRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Узел МКБ-10 с ID " + id + " не найден"));
+    }
+
+    @Override
+    public Mkb10Node getNodeByCode(String code) {
+        return mkb10NodeRepository.findFirstByCode(code.trim())
+                .orElseThrow(() -> new EntityNotFoundException("Код МКБ-10 " + code + " не найден"));
+    }
+
+    @Override
+    public List<Mkb10Node> getChildren(Long id) {
+        getNode(id);
+        return mkb10NodeRepository.findByParentIdOrderByPath(id);
+    }
+
+    @Override
+    public List<Mkb10Node> getAncestors(Long id) {
+        String path = getNode(id).getPath();
+        List<String> prefixes = new ArrayList<>(path.length());
+        for (int length = 1; length < path.length(); length++) {
+            prefixes.add(path.substring(0, length));
+        }
+        return prefixes.isEmpty() ? List.of() : mkb10NodeRepository.findByPathInOrderByPath(prefixes);
+    }
+
+    @Override
+    public List<Mkb10Node> getSubtree(Long id) {
+        String path = getNode(id).getPath();
+        return mkb10NodeRepository.findSubtree(path, upperBound(path));
+    }
+
+    @Override
+    public Mkb10NodeDiseaseCount countDiseases(Long id) {
+        Mkb10Node node = getNode(id);
+        long count = mkb10NodeRepository.countDiseasesInSubtree(node.getPath(), upperBound(node.getPath()));
+        return new Mkb10NodeDiseaseCount(node, count);
+    }
+
+    /**
+     * Наименьшая строка, большая всех путей с префиксом {@code path}: последний символ увеличен на единицу.
+     * Пути состоят из цифр и латинских букв, а в БД сравниваются побайтно (COLLATE "C" на PostgreSQL).
+     */
+    static String upperBound(String path) {
+        char last = path.charAt(path.length() - 1);
+        return path.substring(0, path.length() - 1) + (char) (last + 1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Источник записей справочника MKB10, отдающий их по одной. Позволяет загружать
+ * справочник в БД по мере разбора, не собирая его целиком в памяти.
+ */
+@FunctionalInterface
+public interface Mkb10RowSource {
+
+    void forEach(Consumer<Mkb10> sink) throws IOException;
+
+    static Mkb10RowSource of(Collection<Mkb10> rows) {
+        return rows::forEach;
+    }
+}
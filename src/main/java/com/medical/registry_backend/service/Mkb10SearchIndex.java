@@ -0,0 +1,164 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Неизменяемый инвертированный n-граммный индекс справочника MKB10.
+ * Индексирует n-граммы длиной от 1 до {@link #MAX_GRAM} по коду и наименованию,
+ * поэтому поиск подстроки сводится к пересечению списков и проверке кандидатов
+ * без обращения к БД.
+ */
+public final class Mkb10SearchIndex {
+
+    static final int MAX_GRAM = 3;
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    public static final Mkb10SearchIndex EMPTY = new Mkb10SearchIndex(List.of());
+
+    private final Mkb10[] entries;
+    private final String[] codes;
+    private final String[] names;
+    private final Map<String, int[]> postings;
+
+    private Mkb10SearchIndex(List<Mkb10> sorted) {
+        this.entries = sorted.toArray(new Mkb10[0]);
+        this.codes = new String[entries.length];
+        this.names = new String[entries.length];
+        Map<String, IntList> builder = new HashMap<>();
+        Set<String> docGrams = new HashSet<>();
+        for (int doc = 0; doc < entries.length; doc++) {
+            codes[doc] = normalize(entries[doc].getCode());
+            names[doc] = normalize(entries[doc].getName());
+            docGrams.clear();
+            collectGrams(codes[doc], docGrams);
+            collectGrams(names[doc], docGrams);
+            for (String gram : docGrams) {
+                builder.computeIfAbsent(gram, key -> new IntList()).add(doc);
+            }
+        }
+        this.postings = new HashMap<>(builder.size() * 2);
+        builder.forEach((gram, list) -> postings.put(gram, list.toArray()));
+    }
+
+    /**
+     * Строит индекс по записям справочника. Записи упорядочиваются по коду,
+     * что совпадает с порядком выдачи по умолчанию.
+     */
+    public static Mkb10SearchIndex build(Collection<Mkb10> mkb10List) {
+        if (mkb10List == null || mkb10List.isEmpty()) {
+            return EMPTY;
+        }
+        List<Mkb10> sorted = new ArrayList<>(mkb10List);
+        sorted.sort(Comparator.comparing(Mkb10::getCode));
+        return new Mkb10SearchIndex(sorted);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    /**
+     * Возвращает записи, код или наименование которых содержат строку поиска
+     * (без учёта регистра), в порядке возрастания кода.
+     */
+    public List<Mkb10> search(String query) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || entries.length == 0) {
+            return List.of();
+        }
+        int gramLength = Math.min(MAX_GRAM, needle.length());
+        Set<String> queryGrams = new HashSet<>();
+        for (int i = 0; i + gramLength <= needle.length(); i++) {
+            queryGrams.add(needle.substring(i, i + gramLength));
+        }
+
+        int[][] lists = new int[queryGrams.size()][];
+        int i = 0;
+        for (String gram : queryGrams) {
+            int[] list = postings.getOrDefault(gram, NO_POSTINGS);
+            if (list.length == 0) {
+                return List.of();
+            }
+            lists[i++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+
+        int[] candidates = lists[0];
+        int count = candidates.length;
+        for (int j = 1; j < lists.length && count > 0; j++) {
+            candidates = intersect(candidates, count, lists[j]);
+            count = candidates.length;
+        }
+
+        List<Mkb10> result = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            int doc = candidates[k];
+            if (needle.length() <= gramLength
+                    || codes[doc].contains(needle) || names[doc].contains(needle)) {
+                result.add(entries[doc]);
+            }
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void collectGrams(String text, Set<String> grams) {
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= text.length(); i++) {
+                grams.add(text.substring(i, i + n));
+            }
+        }
+    }
+
+    private static int[] intersect(int[] left, int leftLength, int[] right) {
+        int[] out = new int[Math.min(leftLength, right.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < leftLength && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                out[k++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,29 +1,68 @@
 package com.medical.registry_backend.service;
 
+import com.medical.registry_backend.dto.Mkb10DictionaryStatus;
+import com.medical.registry_backend.dto.Mkb10Match;
+import com.medical.registry_backend.dto.Mkb10RefreshJob;
+import com.medical.registry_backend.dto.Mkb10ResolveResult;
 import com.medical.registry_backend.entity.Mkb10;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface Mkb10Service {
 
     /**
      * Обновляет справочник MKB10, загружая данные из CSV-файла.
-     * Очищает существующие данные в БД, сохраняет новые и сбрасывает кэш.
+     * Применяет к БД только добавленные, изменённые и удалённые коды
+     * и публикует новый снимок справочника, если он изменился.
+     * Одновременно выполняется не больше одного обновления: повторный вызов
+     * присоединяется к текущему и возвращается после его завершения.
      */
     void updateMkb10Data();
 
     /**
-     * Получает запись MKB10 по коду, используя кэш или БД.
+     * Запускает обновление справочника в фоне или присоединяется к уже выполняющемуся.
+     * @return Снимок задачи обновления; его id можно передать в {@link #getMkb10RefreshJob(String)}
+     */
+    Mkb10RefreshJob startMkb10Refresh();
+
+    /**
+     * Состояние задачи обновления: ход разбора, итог и длительность.
+     * Хранятся последние 20 задач.
+     * @throws jakarta.persistence.EntityNotFoundException Если задача не найдена
+     */
+    Mkb10RefreshJob getMkb10RefreshJob(String id);
+
+    /**
+     * Перечитывает справочник из БД и атомарно публикует новый снимок в памяти,
+     * не обращаясь к внешнему источнику.
+     */
+    void reloadDictionary();
+
+    /**
+     * Состояние справочника: размер, свежесть и результат последнего обновления.
+     */
+    Mkb10DictionaryStatus getDictionaryStatus();
+
+    /**
+     * Получает запись MKB10 по коду из снимка справочника в памяти.
      * @param code Код MKB10 (например, A00.0)
      * @return Объект Mkb10 или null, если запись не найдена
      */
     Mkb10 getMkb10ByCode(String code);
 
     /**
-     * Получает все записи MKB10 из БД, обновляя кэш.
-     * @return Список всех записей Mkb10
+     * Получает записи MKB10 по списку кодов за одно обращение к снимку справочника.
+     * @param codes Коды MKB10; повторы и пустые значения игнорируются
+     * @return Найденные записи и коды, отсутствующие в справочнике
+     */
+    Mkb10ResolveResult resolveMkb10Codes(Collection<String> codes);
+
+    /**
+     * Получает все записи MKB10 из снимка справочника в памяти.
+     * @return Неизменяемый список всех записей Mkb10 в порядке кода
      */
     List<Mkb10> getAllMkb10();
 
@@ -34,4 +73,21 @@ public interface Mkb10Service {
      */
     Page<Mkb10> getAllMkb10(Pageable pageable);
     Page<Mkb10> searchMkb10ByCodeOrName(String search, Pageable pageable);
+
+    /**
+     * Полнотекстовый поиск по наименованию с учётом словоформ: «холеры» находит «Холера».
+     * @param query Слова запроса; все должны встретиться в наименовании
+     * @param limit Максимальное число результатов (от 1 до 100)
+     * @return Совпадения по убыванию ранга, при равном ранге — по коду
+     * @throws IllegalArgumentException Если запрос пуст или limit вне допустимого диапазона
+     */
+    List<Mkb10Match> fullTextSearchMkb10(String query, int limit);
+
+    /**
+     * Подсказки для автодополнения по префиксу кода или первых слов наименования.
+     * @param prefix Введённый префикс (например, J06.)
+     * @param limit Максимальное число подсказок (не более 20)
+     * @return Список записей Mkb10, совпадения по коду идут первыми
+     */
+    List<Mkb10> suggestMkb10(String prefix, int limit);
 }
\ No newline at end of file
@@ -1,142 +1,400 @@
 package com.medical.registry_backend.service;
 
+import com.medical.registry_backend.config.Mkb10Properties;
+import com.medical.registry_backend.dto.Mkb10DictionaryStatus;
+import com.medical.registry_backend.dto.Mkb10Match;
+import com.medical.registry_backend.dto.Mkb10RefreshJob;
+import com.medical.registry_backend.dto.Mkb10ResolveResult;
+import com.medical.registry_backend.dto.Mkb10UpdateResult;
 import com.medical.registry_backend.entity.Mkb10;
+import com.medical.registry_backend.entity.Mkb10Node;
+import com.medical.registry_backend.entity.Mkb10NodeType;
 import com.medical.registry_backend.repository.Mkb10Repository;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 public class Mkb10ServiceImpl implements Mkb10Service {
 
     private static final Logger logger = LoggerFactory.getLogger(Mkb10ServiceImpl.class);
-    private static final String MKB10_CSV_URL = "https://raw.githubusercontent.com/ak4nv/mkb10/master/mkb10.csv";
-    private static final String FALLBACK_CSV_PATH = "classpath:mkb10.csv";
     private static final Pattern CODE_PATTERN = Pattern.compile("^[A-Z]\\d{2}\\.\\d$");
+    static final String BINARY_SNAPSHOT_FILE = "mkb10.bin";
+    static final int MAX_FULL_TEXT_LIMIT = 100;
+    static final int RETAINED_REFRESH_JOBS = 20;
+
+    private static final Comparator<Mkb10Match> BY_RANK = Comparator.comparingDouble(Mkb10Match::rank).reversed()
+            .thenComparing(Mkb10Match::code);
 
     private final Mkb10Repository mkb10Repository;
-    private final Cache<String, Mkb10> mkb10Cache;
+    private final Mkb10DictionaryUpdater mkb10DictionaryUpdater;
+    private final Mkb10HierarchyLoader mkb10HierarchyLoader;
+    private final Mkb10SourceFetcher mkb10SourceFetcher;
+    private final Mkb10Properties mkb10Properties;
+    private final DataSource dataSource;
+    private final TaskExecutor taskExecutor;
+    private volatile Boolean fullTextIndex;
+    private volatile Mkb10Dictionary dictionary = Mkb10Dictionary.EMPTY;
+    private volatile boolean refreshing;
+    private volatile Instant lastAttemptAt;
+    private volatile Instant lastSuccessAt;
+    private volatile String lastError;
+
+    /**
+     * Единственная выполняющаяся задача обновления и последние завершённые задачи.
+     * Доступ только под {@code refreshLock}.
+     */
+    private final Object refreshLock = new Object();
+    private RefreshJob currentRefresh;
+    private final Map<String, RefreshJob> refreshJobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RefreshJob> eldest) {
+            return size() > RETAINED_REFRESH_JOBS;
+        }
+    };
 
     @Autowired
-    public Mkb10ServiceImpl(Mkb10Repository mkb10Repository) {
+    public Mkb10ServiceImpl(Mkb10Repository mkb10Repository, Mkb10DictionaryUpdater mkb10DictionaryUpdater,
+                            Mkb10HierarchyLoader mkb10HierarchyLoader, Mkb10SourceFetcher mkb10SourceFetcher,
+                            Mkb10Properties mkb10Properties, DataSource dataSource,
+                            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
         this.mkb10Repository = mkb10Repository;
-        this.mkb10Cache = Caffeine.newBuilder()
-                .expireAfterWrite(24, TimeUnit.HOURS)
-                .maximumSize(20_000)
-                .build();
+        this.mkb10DictionaryUpdater = mkb10DictionaryUpdater;
+        this.mkb10HierarchyLoader = mkb10HierarchyLoader;
+        this.mkb10SourceFetcher = mkb10SourceFetcher;
+        this.mkb10Properties = mkb10Properties;
+        this.dataSource = dataSource;
+        this.taskExecutor = taskExecutor;
     }
 
+    /**
+     * Публикует справочник из двоичного снимка, оставшегося от предыдущего запуска,
+     * чтобы он был доступен ещё до загрузки из БД.
+     */
     @PostConstruct
-    public void init() {
-        logger.info("Initializing MKB10 data on application startup");
-        updateMkb10Data();
+    void openBinarySnapshot() {
+        Path file = mkb10Properties.getSnapshotDir().resolve(BINARY_SNAPSHOT_FILE);
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            dictionary = Mkb10Dictionary.build(Mkb10BinarySnapshot.open(file).toList());
+            logger.info("Loaded MKB10 dictionary from snapshot {} with {} records in {} ms",
+                    file, dictionary.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable MKB10 snapshot {}: {}", file, e.getMessage());
+        }
     }
 
+    @Override
+    public void reloadDictionary() {
+        List<Mkb10> mkb10List = mkb10Repository.findAll();
+        dictionary = Mkb10Dictionary.build(mkb10List);
+        logger.info("MKB10 dictionary published with {} records", dictionary.size());
+        writeBinarySnapshot(mkb10List);
+    }
+
+    private void writeBinarySnapshot(List<Mkb10> mkb10List) {
+        Path file = mkb10Properties.getSnapshotDir().resolve(BINARY_SNAPSHOT_FILE);
+        try {
+            Mkb10BinarySnapshot.write(file, mkb10List);
+        } catch (IOException e) {
+            logger.warn("Failed to write MKB10 snapshot {}", file, e);
+        }
+    }
 
+    @Override
+    public Mkb10DictionaryStatus getDictionaryStatus() {
+        Instant success = lastSuccessAt;
+        boolean stale = success == null
+                || success.plus(mkb10Properties.getStaleAfter()).isBefore(Instant.now());
+        return new Mkb10DictionaryStatus(dictionary.size(), refreshing, stale, success, lastAttemptAt, lastError);
+    }
 
+    /**
+     * Присоединяется к выполняющемуся обновлению, если оно есть, иначе выполняет
+     * обновление в текущем потоке. В обоих случаях возвращает управление после его завершения.
+     */
     @Override
     @Scheduled(cron = "0 0 2 * * ?")
     public void updateMkb10Data() {
-        logger.info("Starting MKB10 data update from {}", MKB10_CSV_URL);
+        RefreshJob job;
+        boolean owner = false;
+        synchronized (refreshLock) {
+            job = currentRefresh;
+            if (job != null) {
+                job.joinedRequests++;
+            } else {
+                job = startRefreshJob();
+                owner = true;
+            }
+        }
+        if (owner) {
+            runRefresh(job);
+        } else {
+            logger.info("Joining in-progress MKB10 refresh {}", job.id);
+            job.done.join();
+        }
+    }
+
+    @Override
+    public Mkb10RefreshJob startMkb10Refresh() {
+        RefreshJob job;
+        synchronized (refreshLock) {
+            if (currentRefresh != null) {
+                currentRefresh.joinedRequests++;
+                logger.info("MKB10 refresh {} already in progress, joining it", currentRefresh.id);
+                return currentRefresh.snapshot();
+            }
+            job = startRefreshJob();
+        }
         try {
-            List<Mkb10> mkb10List = parseMkb10Csv();
-            if (!mkb10List.isEmpty()) {
-                mkb10Repository.deleteAll();
-                mkb10Repository.saveAll(mkb10List);
-                mkb10Cache.invalidateAll();
-                logger.info("Successfully updated MKB10 data with {} records", mkb10List.size());
+            taskExecutor.execute(() -> runRefresh(job));
+        } catch (RuntimeException e) {
+            job.finish(Mkb10RefreshJob.State.FAILED, "Не удалось запустить обновление: " + e.getMessage(), null);
+            releaseRefresh(job);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    @Override
+    public Mkb10RefreshJob getMkb10RefreshJob(String id) {
+        synchronized (refreshLock) {
+            RefreshJob job = refreshJobs.get(id);
+            if (job == null) {
+                throw new EntityNotFoundException("Задача обновления справочника " + id + " не найдена");
+            }
+            return job.snapshot();
+        }
+    }
+
+    private RefreshJob startRefreshJob() {
+        RefreshJob job = new RefreshJob(UUID.randomUUID().toString());
+        currentRefresh = job;
+        refreshJobs.put(job.id, job);
+        return job;
+    }
+
+    private void runRefresh(RefreshJob job) {
+        try {
+            refresh(job);
+        } finally {
+            // refresh ловит только Exception; после Error задача не должна навсегда остаться RUNNING
+            if (job.state == Mkb10RefreshJob.State.RUNNING) {
+                lastError = "Обновление справочника прервано";
+                job.finish(Mkb10RefreshJob.State.FAILED, lastError, null);
+            }
+            releaseRefresh(job);
+        }
+    }
+
+    private void releaseRefresh(RefreshJob job) {
+        synchronized (refreshLock) {
+            if (currentRefresh == job) {
+                currentRefresh = null;
+            }
+        }
+        job.done.complete(null);
+    }
+
+    private void refresh(RefreshJob job) {
+        logger.info("Starting MKB10 data update {} from {}", job.id, mkb10Properties.getSourceUrl());
+        refreshing = true;
+        lastAttemptAt = Instant.now();
+        try {
+            Mkb10SourceFetcher.Result source = mkb10SourceFetcher.fetch();
+            if (!dictionary.isEmpty()) {
+                if (source.status() == Mkb10SourceFetcher.Status.FALLBACK) {
+                    lastError = "Источник справочника МКБ-10 недоступен, используется текущая версия";
+                    logger.warn("MKB10 source unavailable, keeping current dictionary");
+                    job.finish(Mkb10RefreshJob.State.FAILED, lastError, null);
+                    return;
+                }
+                if (source.applied() && !mkb10HierarchyLoader.isEmpty()) {
+                    lastSuccessAt = Instant.now();
+                    lastError = null;
+                    logger.info("MKB10 source unchanged ({}), skipping parse", source.status());
+                    job.finish(Mkb10RefreshJob.State.SUCCEEDED, "Источник не изменился", null);
+                    return;
+                }
+            }
+            AtomicInteger parsed = new AtomicInteger();
+            // Источник читается внутри транзакции слияния: справочник и иерархия заменяются вместе
+            Mkb10UpdateResult result = mkb10DictionaryUpdater.apply(sink -> {
+                job.parsedRows.set(0);
+                Mkb10HierarchyLoader.Writer hierarchy = mkb10HierarchyLoader.open();
+                parsed.set(parseMkb10Csv(source, row -> {
+                    sink.accept(row);
+                    job.parsedRows.incrementAndGet();
+                }, hierarchy));
+                hierarchy.finish();
+            });
+            if (parsed.get() > 0) {
+                mkb10SourceFetcher.markApplied(source);
+                if (result.hasChanges() || dictionary.isEmpty()) {
+                    reloadDictionary();
+                }
+                lastSuccessAt = Instant.now();
+                lastError = null;
+                logger.info("Successfully updated MKB10 data from {} records: {}", parsed.get(), result);
+                job.finish(Mkb10RefreshJob.State.SUCCEEDED, null, result);
             } else {
+                lastError = "Источник не содержит корректных записей МКБ-10";
                 logger.warn("No valid MKB10 data parsed from CSV");
+                job.finish(Mkb10RefreshJob.State.FAILED, lastError, null);
             }
         } catch (Exception e) {
+            lastError = e.getMessage();
             logger.error("Error updating MKB10 data", e);
+            job.finish(Mkb10RefreshJob.State.FAILED, lastError, null);
+        } finally {
+            refreshing = false;
         }
     }
 
-    private List<Mkb10> parseMkb10Csv() throws Exception {
-        List<Mkb10> mkb10List = new ArrayList<>();
-        try (BufferedReader reader = getCsvReader()) {
-            String line;
-            boolean firstLine = true;
-            while ((line = reader.readLine()) != null) {
-//                logger.debug("Processing CSV line: {}", line);
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
+    /**
+     * Разбирает CSV источника потоково и передаёт корректные записи в {@code sink}.
+     * Строки без кода вида A00.0 (заголовок, классы, блоки) пропускаются. Все строки
+     * с идентификатором и путём, включая классы и блоки, передаются в {@code nodeSink}.
+     * @return Число переданных записей
+     */
+    private int parseMkb10Csv(Mkb10SourceFetcher.Result source, Consumer<Mkb10> sink,
+                              Consumer<Mkb10Node> nodeSink) throws IOException {
+        int[] accepted = {0};
+        try (Reader reader = source.openReader()) {
+            CsvStreamParser.parse(reader, row -> {
+                if (row.fieldCount() < 4) {
+                    logger.warn("Invalid CSV line format at line {}", row.lineNumber());
+                    return;
                 }
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 4) {
-                    String code = parts[2].replace("\"", "").trim();
-                    String name = parts[3].replace("\"", "").trim();
-                    if (CODE_PATTERN.matcher(code).matches() && !name.isEmpty()) {
-//                        logger.debug("Parsed valid MKB10 entry: code={}, name={}", code, name);
-                        Mkb10 mkb10 = new Mkb10();
-                        mkb10.setCode(code);
-                        mkb10.setName(name);
-                        mkb10List.add(mkb10);
-                    } else {
-//                        logger.debug("Skipped CSV entry: code={}, name={}", code, name);
-                    }
-                } else {
-                    logger.warn("Invalid CSV line format: {}", line);
+                Mkb10Node node = toNode(row);
+                if (node != null) {
+                    nodeSink.accept(node);
                 }
-            }
-        } catch (Exception e) {
+                String code = row.field(2).trim();
+                if (!CODE_PATTERN.matcher(code).matches()) {
+                    return;
+                }
+                String name = row.field(3).trim();
+                if (name.isEmpty()) {
+                    return;
+                }
+                Mkb10 mkb10 = new Mkb10();
+                mkb10.setCode(code);
+                mkb10.setName(name);
+                sink.accept(mkb10);
+                accepted[0]++;
+            });
+        } catch (IOException | RuntimeException e) {
             logger.error("Error parsing CSV", e);
             throw e;
         }
-        return mkb10List;
+        return accepted[0];
     }
 
-    BufferedReader getCsvReader() throws Exception {
+    /**
+     * Узел иерархии из строки источника: id, путь, код, наименование, id родителя.
+     * @return {@code null}, если в строке нет числового id, пути или наименования
+     */
+    private static Mkb10Node toNode(CsvStreamParser.Row row) {
+        if (row.fieldCount() < 5) {
+            return null;
+        }
+        String path = row.field(1).trim();
+        String name = row.field(3).trim();
+        if (path.isEmpty() || path.length() > 16 || name.isEmpty()) {
+            return null;
+        }
+        Mkb10Node node = new Mkb10Node();
         try {
-            logger.info("Attempting to load CSV from URL: {}", MKB10_CSV_URL);
-            return new BufferedReader(new InputStreamReader(new URL(MKB10_CSV_URL).openStream(), StandardCharsets.UTF_8));
-        } catch (Exception e) {
-            logger.warn("Failed to load CSV from URL, attempting fallback file: {}", FALLBACK_CSV_PATH);
-            return Files.newBufferedReader(Paths.get(getClass().getClassLoader().getResource("mkb10.csv").toURI()), StandardCharsets.UTF_8);
+            node.setId(Long.valueOf(row.field(0).trim()));
+            String parentId = row.field(4).trim();
+            node.setParentId(parentId.isEmpty() ? null : Long.valueOf(parentId));
+        } catch (NumberFormatException e) {
+            return null;
         }
+        String code = row.field(2).trim();
+        node.setPath(path);
+        node.setCode(code.isEmpty() ? null : code);
+        node.setName(name);
+        if (code.isEmpty()) {
+            node.setType(node.getParentId() == null ? Mkb10NodeType.CHAPTER : Mkb10NodeType.BLOCK);
+        } else {
+            node.setType(code.indexOf('.') < 0 ? Mkb10NodeType.CATEGORY : Mkb10NodeType.SUBCATEGORY);
+        }
+        return node;
     }
 
     @Override
     public Mkb10 getMkb10ByCode(String code) {
-        return mkb10Cache.get(code, key -> mkb10Repository.findById(key).orElse(null));
+        return dictionary.find(code);
+    }
+
+    @Override
+    public Mkb10ResolveResult resolveMkb10Codes(Collection<String> codes) {
+        Mkb10Dictionary current = dictionary;
+        Set<String> unique = new LinkedHashSet<>();
+        for (String code : codes) {
+            if (code != null && !code.isBlank()) {
+                unique.add(code.trim());
+            }
+        }
+        List<Mkb10> found = new ArrayList<>(unique.size());
+        List<String> missing = new ArrayList<>();
+        for (String code : unique) {
+            Mkb10 mkb10 = current.find(code);
+            if (mkb10 != null) {
+                found.add(mkb10);
+            } else {
+                missing.add(code);
+            }
+        }
+        return new Mkb10ResolveResult(found, missing);
     }
 
     @Override
     public List<Mkb10> getAllMkb10() {
-        return mkb10Repository.findAll().stream()
-                .peek(mkb10 -> mkb10Cache.put(mkb10.getCode(), mkb10))
-                .toList();
+        return dictionary.entries();
     }
 
     @Override
     public Page<Mkb10> getAllMkb10(Pageable pageable) {
-        return mkb10Repository.findAll(pageable).map(mkb10 -> {
-            mkb10Cache.put(mkb10.getCode(), mkb10);
-            return mkb10;
-        });
+        return toPage(dictionary.entries(), pageable);
     }
+
     @Override
     public Page<Mkb10> searchMkb10ByCodeOrName(String search, Pageable pageable) {
         logger.info("Searching MKB10 data with query: {}, pageable: {}", search, pageable);
@@ -144,11 +402,145 @@ public class Mkb10ServiceImpl implements Mkb10Service {
             logger.info("Search query is empty, returning all MKB10 data");
             return getAllMkb10(pageable);
         }
-        Page<Mkb10> result = mkb10Repository.findByCodeOrNameContainingIgnoreCase(search.trim(), pageable);
-        result.forEach(mkb10 -> mkb10Cache.put(mkb10.getCode(), mkb10));
-        if (result.isEmpty()) {
+        List<Mkb10> matches = dictionary.search(search);
+        if (matches.isEmpty()) {
             logger.warn("No MKB10 data found for search query: {}", search);
         }
-        return result;
+        return toPage(matches, pageable);
+    }
+
+    /**
+     * На PostgreSQL запрос выполняется по GIN-индексу колонки name_tsv (changeset 10) с рангом ts_rank.
+     * На других БД (H2 в тестах) основы слов сравниваются с наименованиями справочника в памяти.
+     */
+    @Override
+    public List<Mkb10Match> fullTextSearchMkb10(String query, int limit) {
+        if (limit < 1 || limit > MAX_FULL_TEXT_LIMIT) {
+            throw new IllegalArgumentException("Число результатов должно быть от 1 до " + MAX_FULL_TEXT_LIMIT);
+        }
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Строка поиска не должна быть пустой");
+        }
+        List<Mkb10Match> matches = hasFullTextIndex() ? fullTextSearchIndexed(query.trim(), limit)
+                : fullTextSearchInDictionary(query, limit);
+        logger.info("Full-text MKB10 search '{}' found {} records", query, matches.size());
+        return matches;
+    }
+
+    /**
+     * СУБД определяется при первом поиске, чтобы не открывать соединение при создании сервиса.
+     * Если определить не удалось, запрос выполняется без индекса, а попытка повторяется при следующем.
+     */
+    private boolean hasFullTextIndex() {
+        Boolean indexed = fullTextIndex;
+        if (indexed == null) {
+            indexed = Databases.detectPostgreSql(dataSource);
+            if (indexed == null) {
+                return false;
+            }
+            fullTextIndex = indexed;
+            logger.info("Full-text MKB10 search uses {}", indexed ? "tsvector index" : "in-memory stemming");
+        }
+        return indexed;
+    }
+
+    private List<Mkb10Match> fullTextSearchIndexed(String query, int limit) {
+        return mkb10Repository.findByNameFullText(query, limit).stream()
+                .map(row -> new Mkb10Match(row.getCode(), row.getName(), row.getRank()))
+                .toList();
+    }
+
+    private List<Mkb10Match> fullTextSearchInDictionary(String query, int limit) {
+        Set<String> terms = new HashSet<>(FullTextTerms.of(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        List<Mkb10Match> matches = new ArrayList<>();
+        for (Mkb10 mkb10 : dictionary.entries()) {
+            double rank = FullTextTerms.rank(terms, FullTextTerms.of(mkb10.getName()));
+            if (rank > 0) {
+                matches.add(new Mkb10Match(mkb10.getCode(), mkb10.getName(), rank));
+            }
+        }
+        matches.sort(BY_RANK);
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    @Override
+    public List<Mkb10> suggestMkb10(String prefix, int limit) {
+        int boundedLimit = Math.min(Math.max(limit, 1), Mkb10SuggestTrie.MAX_SUGGESTIONS);
+        return dictionary.suggest(prefix, boundedLimit);
+    }
+
+    /**
+     * Страница по списку записей, упорядоченному по коду. Сортировка применяется,
+     * только если в запросе указан порядок, отличный от порядка по коду.
+     */
+    private static Page<Mkb10> toPage(List<Mkb10> mkb10List, Pageable pageable) {
+        List<Mkb10> sorted = mkb10List;
+        if (pageable.getSort().isSorted() && !pageable.getSort().equals(Sort.by("code"))) {
+            sorted = new ArrayList<>(mkb10List);
+            sorted.sort(toComparator(pageable.getSort()));
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(sorted, pageable, sorted.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    private static Comparator<Mkb10> toComparator(Sort sort) {
+        Comparator<Mkb10> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Mkb10> next = switch (order.getProperty()) {
+                case "code" -> Comparator.comparing(Mkb10::getCode);
+                case "name" -> Comparator.comparing(Mkb10::getName);
+                default -> throw new IllegalArgumentException("Сортировка по полю " + order.getProperty() + " не поддерживается");
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Изменяемое состояние задачи обновления; наружу отдаётся снимок {@link Mkb10RefreshJob}.
+     */
+    private static final class RefreshJob {
+        private final String id;
+        private final Instant startedAt = Instant.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicInteger parsedRows = new AtomicInteger();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile int joinedRequests;
+        private volatile Mkb10RefreshJob.State state = Mkb10RefreshJob.State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile long durationMs;
+        private volatile Mkb10UpdateResult result;
+        private volatile String message;
+
+        RefreshJob(String id) {
+            this.id = id;
+        }
+
+        void finish(Mkb10RefreshJob.State state, String message, Mkb10UpdateResult result) {
+            this.durationMs = (System.nanoTime() - startedNanos) / 1_000_000;
+            this.finishedAt = Instant.now();
+            this.result = result;
+            this.message = message;
+            this.state = state;
+        }
+
+        Mkb10RefreshJob snapshot() {
+            Mkb10RefreshJob.State current = state;
+            long duration = current == Mkb10RefreshJob.State.RUNNING
+                    ? (System.nanoTime() - startedNanos) / 1_000_000
+                    : durationMs;
+            return new Mkb10RefreshJob(id, current, startedAt, finishedAt, duration, parsedRows.get(),
+                    joinedRequests, result, message);
+        }
     }
 }
\ No newline at end of file
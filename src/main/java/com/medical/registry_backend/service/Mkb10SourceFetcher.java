@@ -0,0 +1,208 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.config.Mkb10Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Скачивает CSV справочника MKB10 в локальный каталог {@link Mkb10Properties#getSnapshotDir()}.
+ * Повторные запросы условные (If-None-Match / If-Modified-Since), а по SHA-256
+ * содержимого определяется, применялась ли уже эта версия к БД. Если источник
+ * недоступен, используется локальная копия или файл из ресурсов приложения.
+ */
+@Component
+public class Mkb10SourceFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(Mkb10SourceFetcher.class);
+    static final String SNAPSHOT_FILE = "mkb10.csv";
+    static final String META_FILE = "mkb10.meta.properties";
+    private static final String FALLBACK_RESOURCE = "mkb10.csv";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String SHA256 = "sha256";
+    private static final String APPLIED_SHA256 = "appliedSha256";
+
+    public enum Status {
+        /** Источник вернул содержимое (200). */
+        DOWNLOADED,
+        /** Источник ответил 304, используется локальная копия. */
+        NOT_MODIFIED,
+        /** Источник недоступен, используется локальная копия или файл из ресурсов. */
+        FALLBACK
+    }
+
+    /**
+     * Результат получения источника.
+     * @param applied Эта версия файла уже была применена к БД
+     */
+    public record Result(Status status, Path file, String sha256, boolean applied) {
+
+        public Reader openReader() throws IOException {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+    }
+
+    private final Mkb10Properties mkb10Properties;
+
+    public Mkb10SourceFetcher(Mkb10Properties mkb10Properties) {
+        this.mkb10Properties = mkb10Properties;
+    }
+
+    public Result fetch() throws IOException {
+        Path dir = mkb10Properties.getSnapshotDir();
+        Files.createDirectories(dir);
+        Properties meta = readMeta(dir);
+        try {
+            return download(dir, meta);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Failed to fetch MKB10 source from {}: {}", mkb10Properties.getSourceUrl(), e.toString());
+            return fallback(dir, meta);
+        }
+    }
+
+    /**
+     * Отмечает версию файла как применённую к БД. Следующий запрос, вернувший
+     * то же содержимое, не потребует разбора.
+     */
+    public void markApplied(Result result) throws IOException {
+        Path dir = mkb10Properties.getSnapshotDir();
+        Properties meta = readMeta(dir);
+        if (!result.sha256().equals(meta.getProperty(SHA256))) {
+            logger.warn("MKB10 snapshot changed since it was fetched, not marking as applied");
+            return;
+        }
+        meta.setProperty(APPLIED_SHA256, result.sha256());
+        writeMeta(dir, meta);
+    }
+
+    private Result download(Path dir, Properties meta) throws IOException {
+        Path file = dir.resolve(SNAPSHOT_FILE);
+        HttpURLConnection connection = (HttpURLConnection) new URL(mkb10Properties.getSourceUrl()).openConnection();
+        connection.setConnectTimeout((int) mkb10Properties.getConnectTimeout().toMillis());
+        connection.setReadTimeout((int) mkb10Properties.getReadTimeout().toMillis());
+        boolean haveSnapshot = Files.isRegularFile(file) && meta.getProperty(SHA256) != null;
+        if (haveSnapshot) {
+            setIfPresent(connection, "If-None-Match", meta.getProperty(ETAG));
+            setIfPresent(connection, "If-Modified-Since", meta.getProperty(LAST_MODIFIED));
+        }
+        try {
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && haveSnapshot) {
+                logger.info("MKB10 source not modified since last fetch");
+                return result(Status.NOT_MODIFIED, file, meta);
+            }
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Источник справочника вернул HTTP " + code);
+            }
+            String sha256;
+            Path part = Files.createTempFile(dir, "mkb10-", ".part");
+            try {
+                try (InputStream in = connection.getInputStream()) {
+                    sha256 = copyWithDigest(in, part);
+                }
+                Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+            putOrRemove(meta, ETAG, connection.getHeaderField("ETag"));
+            putOrRemove(meta, LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+            meta.setProperty(SHA256, sha256);
+            writeMeta(dir, meta);
+            logger.info("Downloaded MKB10 source ({} bytes, sha256 {})", Files.size(file), sha256);
+            return result(Status.DOWNLOADED, file, meta);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private Result fallback(Path dir, Properties meta) throws IOException {
+        Path file = dir.resolve(SNAPSHOT_FILE);
+        if (Files.isRegularFile(file) && meta.getProperty(SHA256) != null) {
+            logger.warn("Using local MKB10 snapshot {}", file);
+            return result(Status.FALLBACK, file, meta);
+        }
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(FALLBACK_RESOURCE)) {
+            if (in == null) {
+                throw new FileNotFoundException("Резервный файл " + FALLBACK_RESOURCE + " не найден");
+            }
+            logger.warn("Using bundled MKB10 file {}", FALLBACK_RESOURCE);
+            meta.clear();
+            meta.setProperty(SHA256, copyWithDigest(in, file));
+            writeMeta(dir, meta);
+        }
+        return result(Status.FALLBACK, file, meta);
+    }
+
+    private static Result result(Status status, Path file, Properties meta) {
+        String sha256 = meta.getProperty(SHA256);
+        return new Result(status, file, sha256, sha256.equals(meta.getProperty(APPLIED_SHA256)));
+    }
+
+    private static String copyWithDigest(InputStream in, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream digesting = new DigestInputStream(in, digest)) {
+            Files.copy(digesting, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static Properties readMeta(Path dir) throws IOException {
+        Properties meta = new Properties();
+        Path file = dir.resolve(META_FILE);
+        if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                meta.load(reader);
+            }
+        }
+        return meta;
+    }
+
+    private static void writeMeta(Path dir, Properties meta) throws IOException {
+        Path part = Files.createTempFile(dir, "mkb10-meta-", ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(part)) {
+                meta.store(out, "MKB10 source snapshot");
+            }
+            Files.move(part, dir.resolve(META_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    private static void setIfPresent(HttpURLConnection connection, String header, String value) {
+        if (value != null) {
+            connection.setRequestProperty(header, value);
+        }
+    }
+
+    private static void putOrRemove(Properties meta, String key, String value) {
+        if (value == null) {
+            meta.remove(key);
+        } else {
+            meta.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Неизменяемое префиксное дерево для автодополнения по справочнику MKB10.
+ * Ключами служат код и первые слова наименования. В каждом узле заранее
+ * сохранены лучшие {@link #MAX_SUGGESTIONS} записей, поэтому подсказка
+ * стоит O(длина префикса) независимо от размера справочника.
+ * <p>
+ * Узлы хранятся в плоских массивах: рёбра каждого узла отсортированы по символу,
+ * а списки лучших записей лежат подряд в общем массиве.
+ */
+public final class Mkb10SuggestTrie {
+
+    public static final int MAX_SUGGESTIONS = 20;
+    static final int LEADING_WORDS = 3;
+
+    public static final Mkb10SuggestTrie EMPTY = build(List.of());
+
+    private final Mkb10[] entries;
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] topStart;
+    private final int[] topDocs;
+
+    private Mkb10SuggestTrie(Mkb10[] entries, List<Node> nodes) {
+        this.entries = entries;
+        int nodeCount = nodes.size();
+        this.edgeStart = new int[nodeCount + 1];
+        this.topStart = new int[nodeCount + 1];
+        int edges = 0;
+        int tops = 0;
+        for (Node node : nodes) {
+            edges += node.children.size();
+            tops += node.topSize;
+        }
+        this.edgeChars = new char[edges];
+        this.edgeTargets = new int[edges];
+        this.topDocs = new int[tops];
+        int e = 0;
+        int t = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = nodes.get(i);
+            edgeStart[i] = e;
+            for (var child : node.children.entrySet()) {
+                edgeChars[e] = child.getKey();
+                edgeTargets[e] = child.getValue().id;
+                e++;
+            }
+            topStart[i] = t;
+            for (int k = 0; k < node.topSize; k++) {
+                topDocs[t++] = node.topDocs[k];
+            }
+        }
+        edgeStart[nodeCount] = e;
+        topStart[nodeCount] = t;
+    }
+
+    /**
+     * Строит дерево по записям справочника. При равном ранге записи упорядочиваются по коду.
+     */
+    public static Mkb10SuggestTrie build(Collection<Mkb10> mkb10List) {
+        Mkb10[] entries = mkb10List.toArray(new Mkb10[0]);
+        Arrays.sort(entries, Comparator.comparing(Mkb10::getCode));
+
+        List<Node> nodes = new ArrayList<>();
+        Node root = new Node(nodes);
+        for (int doc = 0; doc < entries.length; doc++) {
+            insert(root, nodes, Mkb10SearchIndex.normalize(entries[doc].getCode()), doc, 0);
+            String[] words = Mkb10SearchIndex.normalize(entries[doc].getName()).split("[^\\p{L}\\p{N}]+");
+            int rank = 1;
+            for (String word : words) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                insert(root, nodes, word, doc, rank);
+                if (++rank > LEADING_WORDS) {
+                    break;
+                }
+            }
+        }
+        return new Mkb10SuggestTrie(entries, nodes);
+    }
+
+    /**
+     * Возвращает не более {@code limit} записей, код или одно из первых слов
+     * наименования которых начинается с префикса. Совпадения по коду идут первыми.
+     */
+    public List<Mkb10> suggest(String prefix, int limit) {
+        String key = Mkb10SearchIndex.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            int from = edgeStart[node];
+            int edge = Arrays.binarySearch(edgeChars, from, edgeStart[node + 1], key.charAt(i));
+            if (edge < 0) {
+                return List.of();
+            }
+            node = edgeTargets[edge];
+        }
+        int from = topStart[node];
+        int to = Math.min(topStart[node + 1], from + limit);
+        List<Mkb10> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(entries[topDocs[i]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private static void insert(Node root, List<Node> nodes, String key, int doc, int rank) {
+        Node node = root;
+        node.offer(doc, rank);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i), nodes);
+            node.offer(doc, rank);
+        }
+    }
+
+    /**
+     * Узел на этапе построения. Держит не более {@link #MAX_SUGGESTIONS} записей,
+     * упорядоченных по (ранг, порядковый номер записи).
+     */
+    private static final class Node {
+        private final int id;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private int[] topDocs = new int[2];
+        private int[] topRanks = new int[2];
+        private int topSize;
+
+        Node(List<Node> nodes) {
+            this.id = nodes.size();
+            nodes.add(this);
+        }
+
+        Node child(char c, List<Node> nodes) {
+            Node child = children.get(c);
+            if (child == null) {
+                child = new Node(nodes);
+                children.put(c, child);
+            }
+            return child;
+        }
+
+        void offer(int doc, int rank) {
+            for (int i = 0; i < topSize; i++) {
+                if (topDocs[i] == doc) {
+                    if (topRanks[i] <= rank) {
+                        return;
+                    }
+                    System.arraycopy(topDocs, i + 1, topDocs, i, topSize - i - 1);
+                    System.arraycopy(topRanks, i + 1, topRanks, i, topSize - i - 1);
+                    topSize--;
+                    break;
+                }
+            }
+            int pos = topSize;
+            while (pos > 0 && (topRanks[pos - 1] > rank || (topRanks[pos - 1] == rank && topDocs[pos - 1] > doc))) {
+                pos--;
+            }
+            if (pos >= MAX_SUGGESTIONS) {
+                return;
+            }
+            if (topSize == topDocs.length) {
+                int capacity = Math.min(MAX_SUGGESTIONS + 1, topDocs.length * 2);
+                topDocs = Arrays.copyOf(topDocs, capacity);
+                topRanks = Arrays.copyOf(topRanks, capacity);
+            }
+            System.arraycopy(topDocs, pos, topDocs, pos + 1, topSize - pos);
+            System.arraycopy(topRanks, pos, topRanks, pos + 1, topSize - pos);
+            topDocs[pos] = doc;
+            topRanks[pos] = rank;
+            if (topSize < MAX_SUGGESTIONS) {
+                topSize++;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.config.Mkb10Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Прогрев справочника MKB10 при старте. Индексы сразу строятся по текущей таблице,
+ * а загрузка из внешнего источника, в зависимости от {@code mkb10.startup-mode},
+ * выполняется синхронно, в фоне или не выполняется вовсе.
+ */
+@Component
+public class Mkb10WarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(Mkb10WarmUp.class);
+
+    private final Mkb10Service mkb10Service;
+    private final Mkb10Properties mkb10Properties;
+    private final TaskExecutor taskExecutor;
+
+    public Mkb10WarmUp(Mkb10Service mkb10Service, Mkb10Properties mkb10Properties,
+                       @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.mkb10Service = mkb10Service;
+        this.mkb10Properties = mkb10Properties;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        logger.info("Initializing MKB10 data on application startup, mode: {}", mkb10Properties.getStartupMode());
+        mkb10Service.reloadDictionary();
+        switch (mkb10Properties.getStartupMode()) {
+            case SYNC -> mkb10Service.updateMkb10Data();
+            case ASYNC -> taskExecutor.execute(mkb10Service::updateMkb10Data);
+            case OFF -> logger.info("MKB10 refresh on startup is disabled");
+        }
+    }
+}
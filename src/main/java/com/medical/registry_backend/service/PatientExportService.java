@@ -0,0 +1,56 @@
+package com.medical.registry_backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public interface PatientExportService {
+
+    /**
+     * Формат выгрузки реестра.
+     */
+    enum Format {
+        /** Один JSON-объект пациента с заболеваниями на строку. */
+        NDJSON("application/x-ndjson", "ndjson"),
+        /** Одна строка на заболевание; пациент без заболеваний — одна строка с пустыми полями заболевания. */
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * Формат по имени без учёта регистра.
+         * @throws IllegalArgumentException Если формат не поддерживается
+         */
+        public static Format of(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Формат выгрузки " + name + " не поддерживается, допустимо: ndjson, csv");
+            }
+        }
+    }
+
+    /**
+     * Выгружает весь реестр пациентов с заболеваниями в поток. Строки читаются
+     * однонаправленным курсором БД и сразу пишутся в {@code out}, поэтому расход
+     * памяти не зависит от размера реестра.
+     * @param format Формат выгрузки
+     * @param out Поток ответа; не закрывается
+     * @return Число выгруженных пациентов
+     */
+    long exportPatients(Format format, OutputStream out) throws IOException;
+}
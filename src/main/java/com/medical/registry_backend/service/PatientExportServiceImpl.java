@@ -0,0 +1,221 @@
+package com.medical.registry_backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.registry_backend.entity.Disease;
+import com.medical.registry_backend.entity.Patient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Выгрузка реестра через {@link ScrollableResults}: пациенты и их заболевания читаются
+ * одним упорядоченным запросом с фиксированным размером выборки, строки одного пациента
+ * идут подряд и пишутся сразу по мере чтения. Контекст персистентности периодически
+ * очищается, чтобы прочитанные сущности не накапливались.
+ */
+@Service
+public class PatientExportServiceImpl implements PatientExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientExportServiceImpl.class);
+    static final int FETCH_SIZE = 500;
+    static final int CLEAR_EVERY_ROWS = 1000;
+
+    private static final String EXPORT_QUERY =
+            "SELECT p, d FROM Patient p LEFT JOIN p.diseases d ORDER BY p.id, d.id";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public PatientExportServiceImpl(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPatients(Format format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        Session session = entityManager.unwrap(Session.class);
+        long patients = 0;
+        long rows = 0;
+        try (RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(objectMapper, out);
+             ScrollableResults<Object[]> results = session.createSelectionQuery(EXPORT_QUERY, Object[].class)
+                     .setReadOnly(true)
+                     .setFetchSize(FETCH_SIZE)
+                     .setCacheMode(CacheMode.IGNORE)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            Long currentId = null;
+            while (results.next()) {
+                Object[] row = results.get();
+                Patient patient = (Patient) row[0];
+                Disease disease = (Disease) row[1];
+                if (!patient.getId().equals(currentId)) {
+                    if (currentId != null) {
+                        writer.endPatient();
+                    }
+                    writer.startPatient(patient);
+                    currentId = patient.getId();
+                    patients++;
+                }
+                writer.disease(patient, disease);
+                if (++rows % CLEAR_EVERY_ROWS == 0) {
+                    session.clear();
+                }
+            }
+            if (currentId != null) {
+                writer.endPatient();
+            }
+        }
+        logger.info("Exported {} patients ({} rows) as {} in {} ms",
+                patients, rows, format, (System.nanoTime() - started) / 1_000_000);
+        return patients;
+    }
+
+    /**
+     * Запись выгрузки по строкам запроса. Для каждого пациента вызывается
+     * {@code startPatient}, затем {@code disease} для каждой строки (с {@code null},
+     * если заболеваний нет) и {@code endPatient}. Закрытие дописывает буфер, но не закрывает поток.
+     */
+    private interface RowWriter extends AutoCloseable {
+        void startPatient(Patient patient) throws IOException;
+
+        void disease(Patient patient, Disease disease) throws IOException;
+
+        void endPatient() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Строки разделяет endPatient; иначе перед каждым объектом, кроме первого, появится пробел
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void startPatient(Patient patient) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", patient.getId());
+            generator.writeStringField("lastName", patient.getLastName());
+            generator.writeStringField("firstName", patient.getFirstName());
+            generator.writeStringField("middleName", patient.getMiddleName());
+            generator.writeStringField("gender", patient.getGender());
+            generator.writeStringField("birthDate", format(patient.getBirthDate()));
+            generator.writeStringField("insuranceNumber", patient.getInsuranceNumber());
+            generator.writeArrayFieldStart("diseases");
+        }
+
+        @Override
+        public void disease(Patient patient, Disease disease) throws IOException {
+            if (disease == null) {
+                return;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("id", disease.getId());
+            generator.writeStringField("mkb10Code", disease.getMkb10().getCode());
+            generator.writeStringField("startDate", format(disease.getStartDate()));
+            generator.writeStringField("endDate", format(disease.getEndDate()));
+            generator.writeStringField("prescriptions", disease.getPrescriptions());
+            generator.writeBooleanField("sickLeaveIssued", Boolean.TRUE.equals(disease.getSickLeaveIssued()));
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void endPatient() throws IOException {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private static final String HEADER = "patient_id,last_name,first_name,middle_name,gender,birth_date,"
+                + "insurance_number,disease_id,mkb10_code,start_date,end_date,prescriptions,sick_leave_issued";
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void startPatient(Patient patient) {
+        }
+
+        @Override
+        public void disease(Patient patient, Disease disease) throws IOException {
+            writer.write(String.valueOf(patient.getId()));
+            field(patient.getLastName());
+            field(patient.getFirstName());
+            field(patient.getMiddleName());
+            field(patient.getGender());
+            field(format(patient.getBirthDate()));
+            field(patient.getInsuranceNumber());
+            if (disease == null) {
+                writer.write(",,,,,,");
+            } else {
+                field(String.valueOf(disease.getId()));
+                field(disease.getMkb10().getCode());
+                field(format(disease.getStartDate()));
+                field(format(disease.getEndDate()));
+                field(disease.getPrescriptions());
+                field(String.valueOf(Boolean.TRUE.equals(disease.getSickLeaveIssued())));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void endPatient() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private void field(String value) throws IOException {
+            writer.write(',');
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static String format(LocalDate date) {
+        return date == null ? null : date.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.dto.PatientMatch;
+
+import java.util.List;
+
+public interface PatientFuzzySearchService {
+
+    /**
+     * Нечёткий поиск пациентов по ФИО: устойчив к опечаткам и различию Ё/Е.
+     * Запрос сравнивается по триграммам с наиболее похожей частью ФИО.
+     * @param query Фамилия, возможно с именем и отчеством
+     * @param limit Сколько лучших совпадений вернуть
+     * @return Совпадения по убыванию сходства
+     * @throws IllegalArgumentException Если запрос пуст или limit вне допустимого диапазона
+     */
+    List<PatientMatch> findByName(String query, int limit);
+}
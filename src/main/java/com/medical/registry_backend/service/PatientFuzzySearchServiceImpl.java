@@ -0,0 +1,111 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.dto.PatientMatch;
+import com.medical.registry_backend.dto.PatientSummary;
+import com.medical.registry_backend.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * На PostgreSQL кандидаты выбираются оператором {@code <%} расширения pg_trgm по GIN-индексу
+ * (changeset 9) и ранжируются word_similarity. На других БД (H2 в тестах) те же триграммы
+ * считаются в приложении по кратким сведениям всех пациентов.
+ */
+@Service
+public class PatientFuzzySearchServiceImpl implements PatientFuzzySearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientFuzzySearchServiceImpl.class);
+    static final int MAX_LIMIT = 100;
+
+    /**
+     * Порог сходства, как pg_trgm.word_similarity_threshold по умолчанию.
+     */
+    static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private static final Comparator<PatientMatch> BY_SCORE = Comparator.comparingDouble(PatientMatch::score).reversed()
+            .thenComparing(match -> match.patient().id());
+
+    private final PatientRepository patientRepository;
+    private final DataSource dataSource;
+    private volatile Boolean trigramIndex;
+
+    public PatientFuzzySearchServiceImpl(PatientRepository patientRepository, DataSource dataSource) {
+        this.patientRepository = patientRepository;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PatientMatch> findByName(String query, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Число результатов должно быть от 1 до " + MAX_LIMIT);
+        }
+        List<String> words = Trigrams.words(query);
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("Строка поиска не должна быть пустой");
+        }
+        String normalized = String.join(" ", words);
+        List<PatientMatch> matches = hasTrigramIndex() ? findIndexed(normalized, limit) : findInProcess(normalized, limit);
+        logger.info("Fuzzy search '{}' found {} patients", normalized, matches.size());
+        return matches;
+    }
+
+    /**
+     * СУБД определяется при первом поиске, чтобы не открывать соединение при создании сервиса.
+     * Если определить не удалось, запрос выполняется без индекса, а попытка повторяется при следующем.
+     */
+    private boolean hasTrigramIndex() {
+        Boolean indexed = trigramIndex;
+        if (indexed == null) {
+            indexed = Databases.detectPostgreSql(dataSource);
+            if (indexed == null) {
+                return false;
+            }
+            trigramIndex = indexed;
+            logger.info("Fuzzy patient search uses {}", indexed ? "pg_trgm index" : "in-process trigram scoring");
+        }
+        return indexed;
+    }
+
+    private List<PatientMatch> findIndexed(String query, int limit) {
+        List<PatientRepository.NameScore> scores = patientRepository.findByNameTrigrams(query, limit);
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PatientSummary> summaries = patientRepository
+                .findSummariesByIdIn(scores.stream().map(PatientRepository.NameScore::getId).toList())
+                .stream().collect(Collectors.toMap(PatientSummary::id, Function.identity()));
+        List<PatientMatch> matches = new ArrayList<>(scores.size());
+        for (PatientRepository.NameScore score : scores) {
+            PatientSummary summary = summaries.get(score.getId());
+            if (summary != null) {
+                matches.add(new PatientMatch(summary, score.getScore()));
+            }
+        }
+        return matches;
+    }
+
+    private List<PatientMatch> findInProcess(String query, int limit) {
+        return patientRepository.findAllSummaries().stream()
+                .map(summary -> new PatientMatch(summary, Trigrams.wordSimilarity(query, fullName(summary))))
+                .filter(match -> match.score() >= WORD_SIMILARITY_THRESHOLD)
+                .sorted(BY_SCORE)
+                .limit(limit)
+                .toList();
+    }
+
+    private static String fullName(PatientSummary summary) {
+        return summary.lastName() + " " + summary.firstName() + " "
+                + (summary.middleName() == null ? "" : summary.middleName());
+    }
+}
@@ -0,0 +1,18 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.dto.PatientImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PatientImportService {
+
+    /**
+     * Импортирует пациентов из потока NDJSON (один пациент на строку). Записи читаются
+     * по одной и сохраняются порциями по отдельным транзакциям; ошибочные записи
+     * пропускаются и попадают в отчёт, остальные сохраняются.
+     * @param in Поток NDJSON в UTF-8; не закрывается
+     * @return Число сохранённых и отклонённых записей с ошибками по строкам
+     */
+    PatientImportResult importPatients(InputStream in) throws IOException;
+}
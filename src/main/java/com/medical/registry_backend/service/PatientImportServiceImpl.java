@@ -0,0 +1,237 @@
+package com.medical.registry_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.medical.registry_backend.config.PatientImportProperties;
+import com.medical.registry_backend.dto.PatientImportError;
+import com.medical.registry_backend.dto.PatientImportRecord;
+import com.medical.registry_backend.dto.PatientImportResult;
+import com.medical.registry_backend.entity.Disease;
+import com.medical.registry_backend.entity.Mkb10;
+import com.medical.registry_backend.entity.Patient;
+import com.medical.registry_backend.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Импорт пациентов из NDJSON. Поток читается построчно, поэтому в памяти находится
+ * не больше одной порции записей. Коды MKB10 проверяются по снимку справочника в памяти,
+ * а в БД передаются ссылками без чтения. Дубли полиса отсеиваются одним запросом
+ * на порцию; если порция всё же не записалась (например, параллельная вставка),
+ * её записи сохраняются по одной, чтобы отклонить только виновные.
+ */
+@Service
+public class PatientImportServiceImpl implements PatientImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientImportServiceImpl.class);
+
+    private final PatientRepository patientRepository;
+    private final Mkb10Service mkb10Service;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader recordReader;
+    private final PatientImportProperties properties;
+
+    public PatientImportServiceImpl(PatientRepository patientRepository, Mkb10Service mkb10Service,
+                                    EntityManager entityManager, TransactionTemplate transactionTemplate,
+                                    Validator validator, ObjectMapper objectMapper,
+                                    PatientImportProperties properties) {
+        this.patientRepository = patientRepository;
+        this.mkb10Service = mkb10Service;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.recordReader = objectMapper.readerFor(PatientImportRecord.class);
+        this.properties = properties;
+    }
+
+    @Override
+    public PatientImportResult importPatients(InputStream in) throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report(properties.getMaxReportedErrors());
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<Candidate> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            PatientImportRecord record;
+            try {
+                record = recordReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                report.fail(lineNumber, null, "Некорректный JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            try {
+                batch.add(new Candidate(lineNumber, toPatient(record)));
+            } catch (IllegalArgumentException e) {
+                report.fail(lineNumber, record.insuranceNumber(), e.getMessage());
+                continue;
+            }
+            if (batch.size() >= batchSize) {
+                writeBatch(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, report);
+        }
+        logger.info("Imported {} patients, rejected {} records in {} ms",
+                report.imported, report.failed, (System.nanoTime() - started) / 1_000_000);
+        return report.toResult();
+    }
+
+    private Patient toPatient(PatientImportRecord record) {
+        requireField(record.lastName(), "lastName");
+        requireField(record.firstName(), "firstName");
+        requireField(record.gender(), "gender");
+        requireField(record.birthDate(), "birthDate");
+        requireField(record.insuranceNumber(), "insuranceNumber");
+
+        Patient patient = new Patient();
+        patient.setLastName(record.lastName());
+        patient.setFirstName(record.firstName());
+        patient.setMiddleName(record.middleName());
+        patient.setGender(record.gender());
+        patient.setBirthDate(record.birthDate());
+        patient.setInsuranceNumber(record.insuranceNumber());
+        Set<String> violations = new TreeSet<>(messages(validator.validate(patient)));
+        if (record.diseases() != null) {
+            for (PatientImportRecord.DiseaseRecord diseaseRecord : record.diseases()) {
+                if (diseaseRecord == null) {
+                    continue;
+                }
+                Mkb10 mkb10 = mkb10Service.getMkb10ByCode(diseaseRecord.mkb10Code());
+                if (mkb10 == null) {
+                    throw new IllegalArgumentException("Код МКБ-10 " + diseaseRecord.mkb10Code() + " не найден");
+                }
+                Disease disease = new Disease();
+                disease.setPatient(patient);
+                disease.setMkb10(mkb10);
+                disease.setStartDate(diseaseRecord.startDate());
+                disease.setEndDate(diseaseRecord.endDate());
+                disease.setPrescriptions(diseaseRecord.prescriptions());
+                disease.setSickLeaveIssued(diseaseRecord.sickLeaveIssued());
+                violations.addAll(messages(validator.validate(disease)));
+                patient.getDiseases().add(disease);
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", violations));
+        }
+        return patient;
+    }
+
+    private static void requireField(Object value, String field) {
+        if (value == null || value instanceof String text && text.isBlank()) {
+            throw new IllegalArgumentException("Поле " + field + " обязательно");
+        }
+    }
+
+    private static <T> List<String> messages(Set<ConstraintViolation<T>> violations) {
+        return violations.stream().map(ConstraintViolation::getMessage).toList();
+    }
+
+    private void writeBatch(List<Candidate> batch, Report report) {
+        Set<String> numbers = new HashSet<>();
+        for (Candidate candidate : batch) {
+            numbers.add(candidate.patient().getInsuranceNumber());
+        }
+        Set<String> taken = new HashSet<>(patientRepository.findExistingInsuranceNumbers(numbers));
+        List<Candidate> accepted = new ArrayList<>(batch.size());
+        for (Candidate candidate : batch) {
+            String number = candidate.patient().getInsuranceNumber();
+            if (!taken.add(number)) {
+                report.fail(candidate.line(), number, "Пациент с номером страховки " + number + " уже существует");
+            } else {
+                accepted.add(candidate);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(accepted));
+            report.imported += accepted.size();
+        } catch (DataAccessException e) {
+            logger.warn("Import batch of {} patients failed, retrying one by one: {}", accepted.size(), e.getMessage());
+            for (Candidate candidate : accepted) {
+                resetIds(candidate.patient());
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(candidate)));
+                    report.imported++;
+                } catch (DataAccessException single) {
+                    resetIds(candidate.patient());
+                    report.fail(candidate.line(), candidate.patient().getInsuranceNumber(), "Нарушение целостности данных");
+                }
+            }
+        }
+    }
+
+    private void persist(List<Candidate> candidates) {
+        for (Candidate candidate : candidates) {
+            Patient patient = candidate.patient();
+            for (Disease disease : patient.getDiseases()) {
+                disease.setMkb10(entityManager.getReference(Mkb10.class, disease.getMkb10().getCode()));
+            }
+            entityManager.persist(patient);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static void resetIds(Patient patient) {
+        patient.setId(null);
+        for (Disease disease : patient.getDiseases()) {
+            disease.setId(null);
+        }
+    }
+
+    private record Candidate(long line, Patient patient) {
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<PatientImportError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String insuranceNumber, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new PatientImportError(line, insuranceNumber, message));
+            }
+        }
+
+        PatientImportResult toResult() {
+            return new PatientImportResult(imported, failed, errors);
+        }
+    }
+}
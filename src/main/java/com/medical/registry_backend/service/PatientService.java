@@ -1,17 +1,79 @@
 package com.medical.registry_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medical.registry_backend.dto.CursorSlice;
+import com.medical.registry_backend.dto.PatientSearchCriteria;
+import com.medical.registry_backend.dto.PatientSummary;
 import com.medical.registry_backend.entity.Patient;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 
 public interface PatientService {
     Page<Patient> getAllPatients(Pageable pageable);
+
+    /**
+     * Получает страницу кратких сведений о пациентах без загрузки сущностей и заболеваний.
+     * @param pageable Параметры пагинации (страница, размер, сортировка)
+     * @param withDiseaseCount Посчитать число заболеваний каждого пациента
+     * @return Страница кратких сведений
+     */
+    Page<PatientSummary> getPatientSummaries(Pageable pageable, boolean withDiseaseCount);
+
+    /**
+     * Получает страницу пациентов по курсору (keyset) без подсчёта общего числа записей.
+     * Стоимость страницы не зависит от её положения, что нужно для полного обхода реестра.
+     * @param after Курсор из предыдущей страницы или пустая строка для первой страницы
+     * @param sort Сортировка первой страницы: id, lastName или birthDate
+     * @param size Размер страницы
+     * @return Страница пациентов с курсором следующей страницы
+     */
+    CursorSlice<Patient> getPatientsAfter(String after, Sort sort, int size);
+
+    /**
+     * Ищет пациентов по полису, дате рождения и началу ФИО без учёта регистра.
+     * Результаты отдаются по курсору (keyset), заболевания не загружаются.
+     * @param criteria Критерии поиска; хотя бы один должен быть задан
+     * @param after Курсор из предыдущей страницы или пустая строка для первой страницы
+     * @param sort Сортировка первой страницы: id, lastName или birthDate; по умолчанию lastName
+     * @param size Размер страницы
+     * @throws IllegalArgumentException Если не задан ни один критерий
+     */
+    CursorSlice<PatientSummary> searchPatients(PatientSearchCriteria criteria, String after, Sort sort, int size);
     Patient getPatientById(Long id);
+
+    /**
+     * Текущая версия пациента (ETag) без загрузки заболеваний.
+     * @throws jakarta.persistence.EntityNotFoundException Если пациент не найден
+     */
+    Long getPatientVersion(Long id);
     Patient savePatient(Patient patient);
-    Patient updatePatient(Long id, Patient patient);
-    void deletePatient(Long id);
+
+    /**
+     * Обновляет пациента, если его версия совпадает с ожидаемой. Изменение заболеваний
+     * увеличивает версию пациента, даже если его собственные поля не менялись.
+     * @param expectedVersion Версия из If-Match или null без проверки
+     * @throws org.springframework.web.server.ResponseStatusException 412, если версия изменилась
+     */
+    Patient updatePatient(Long id, Patient patient, Long expectedVersion);
+
+    /**
+     * Частично обновляет пациента по JSON Merge Patch (RFC 7396) без загрузки заболеваний.
+     * В UPDATE попадают только изменённые столбцы.
+     * @param id ID пациента
+     * @param patch Объект с изменяемыми полями; null удаляет необязательное поле
+     * @param expectedVersion Версия из If-Match или null без проверки
+     * @return Краткие сведения об обновлённом пациенте
+     */
+    PatientSummary patchPatient(Long id, JsonNode patch, Long expectedVersion);
+
+    /**
+     * Удаляет пациента, если его версия совпадает с ожидаемой.
+     * @param expectedVersion Версия из If-Match или null без проверки
+     */
+    void deletePatient(Long id, Long expectedVersion);
     void deleteAll();
     List<Patient> getAllPatients();
 
@@ -1,35 +1,151 @@
 package com.medical.registry_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.registry_backend.dto.CursorSlice;
+import com.medical.registry_backend.dto.PatientSearchCriteria;
+import com.medical.registry_backend.dto.PatientSummary;
 import com.medical.registry_backend.entity.Disease;
 import com.medical.registry_backend.entity.Patient;
 import com.medical.registry_backend.repository.PatientRepository;
+import com.medical.registry_backend.repository.PatientSpecifications;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class PatientServiceImpl implements PatientService {
     private final PatientRepository patientRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
     private static final Logger logger = LoggerFactory.getLogger(PatientServiceImpl.class);
 
+    private static final Map<String, Function<String, Object>> CURSOR_SORT_KEYS = Map.of(
+            "lastName", value -> value,
+            "birthDate", LocalDate::parse);
+    private static final Sort SEARCH_DEFAULT_SORT = Sort.by("lastName");
+
+    private static final Set<String> PATCHABLE_FIELDS =
+            Set.of("lastName", "firstName", "middleName", "gender", "birthDate", "insuranceNumber");
+    private static final Set<String> REQUIRED_FIELDS =
+            Set.of("lastName", "firstName", "gender", "birthDate", "insuranceNumber");
+
+    /**
+     * Получает страницу пациентов в два запроса: сначала страница идентификаторов
+     * с настоящим LIMIT/OFFSET, затем пациенты с заболеваниями только для этих
+     * идентификаторов. К сортировке добавляется id, чтобы страницы не пересекались.
+     */
     @Override
     public Page<Patient> getAllPatients(Pageable pageable) {
         logger.info("Fetching patients with pageable: {}", pageable);
-        Page<Patient> page = patientRepository.findAll(pageable);
-        if (page.isEmpty()) {
+        Page<Long> idPage = patientRepository.findIdPage(withIdTieBreaker(pageable));
+        if (idPage.isEmpty()) {
             logger.warn("No patients found for pageable: {}", pageable);
+            return new PageImpl<>(List.of(), pageable, idPage.getTotalElements());
         }
-        return page;
+        List<Patient> content = findWithDiseases(idPage.getContent());
+        return new PageImpl<>(content, pageable, idPage.getTotalElements());
+    }
+
+    @Override
+    public Page<PatientSummary> getPatientSummaries(Pageable pageable, boolean withDiseaseCount) {
+        logger.info("Fetching patient summaries with pageable: {}, disease count: {}", pageable, withDiseaseCount);
+        Pageable stable = withIdTieBreaker(pageable);
+        Page<PatientSummary> summaries = withDiseaseCount
+                ? patientRepository.findSummaryPageWithDiseaseCount(stable)
+                : patientRepository.findSummaryPage(stable);
+        return new PageImpl<>(summaries.getContent(), pageable, summaries.getTotalElements());
+    }
+
+    /**
+     * Получает страницу пациентов по курсору: окно пациентов выбирается условием по ключу
+     * сортировки без OFFSET и COUNT, затем заболевания подгружаются только для этого окна.
+     */
+    @Override
+    public CursorSlice<Patient> getPatientsAfter(String after, Sort sort, int size) {
+        logger.info("Fetching patients after cursor: {}, sort: {}, size: {}", after, sort, size);
+        KeysetCursor cursor = KeysetCursor.of(after, sort, CURSOR_SORT_KEYS);
+        Window<Patient> window = patientRepository.findBy(cursor.position(), cursor.sort(), KeysetCursor.limit(size));
+        List<Patient> content = findWithDiseases(window.stream().map(Patient::getId).toList());
+        String nextCursor = window.hasNext() ? cursor.next(window.positionAt(window.size() - 1)) : null;
+        return new CursorSlice<>(content, size, nextCursor != null, nextCursor);
+    }
+
+    /**
+     * Поиск выполняется одним запросом по условию и ключу курсора; условия совпадают
+     * с выражениями индексов поиска, поэтому выборка не просматривает всю таблицу.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<PatientSummary> searchPatients(PatientSearchCriteria criteria, String after, Sort sort, int size) {
+        logger.info("Searching patients by {}, after cursor: {}, sort: {}, size: {}", criteria, after, sort, size);
+        if (criteria.isEmpty()) {
+            throw new IllegalArgumentException("Укажите хотя бы один критерий поиска");
+        }
+        KeysetCursor cursor = KeysetCursor.of(after, sort.isSorted() ? sort : SEARCH_DEFAULT_SORT, CURSOR_SORT_KEYS);
+        Limit limit = KeysetCursor.limit(size);
+        Window<Patient> window = patientRepository.findBy(PatientSpecifications.matching(criteria),
+                query -> query.sortBy(cursor.sort()).limit(limit.max()).scroll(cursor.position()));
+        List<PatientSummary> content = window.stream().map(PatientServiceImpl::toSummary).toList();
+        String nextCursor = window.hasNext() ? cursor.next(window.positionAt(window.size() - 1)) : null;
+        return new CursorSlice<>(content, size, nextCursor != null, nextCursor);
+    }
+
+    private List<Patient> findWithDiseases(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Patient> patientsById = new HashMap<>();
+        for (Patient patient : patientRepository.findByIdIn(ids)) {
+            patientsById.put(patient.getId(), patient);
+        }
+        List<Patient> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Patient patient = patientsById.get(id);
+            if (patient != null) {
+                content.add(patient);
+            }
+        }
+        return content;
+    }
+
+    private static Pageable withIdTieBreaker(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id"));
+        }
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
     }
 
     @Override
@@ -49,6 +165,12 @@ public class PatientServiceImpl implements PatientService {
         return patient;
     }
 
+    @Override
+    public Long getPatientVersion(Long id) {
+        return patientRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Пациент с ID " + id + " не найден"));
+    }
+
     @Override
     public Patient savePatient(Patient patient) {
         try {
@@ -67,10 +189,19 @@ public class PatientServiceImpl implements PatientService {
         }
     }
 
+    /**
+     * Обновляет пациента в одной транзакции. Заболевания сопоставляются по id:
+     * изменённые обновляются на месте, новые (без id) добавляются, отсутствующие
+     * в запросе удаляются. Все изменения записываются одним сбросом контекста.
+     * Заболевания не меняют строку пациента, поэтому его версия увеличивается принудительно,
+     * чтобы ETag пациента отражал весь агрегат.
+     */
     @Override
-    public Patient updatePatient(Long id, Patient patient) {
+    @Transactional
+    public Patient updatePatient(Long id, Patient patient, Long expectedVersion) {
         Patient existingPatient = patientRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
+        VersionPrecondition.check(expectedVersion, existingPatient.getVersion());
         existingPatient.setLastName(patient.getLastName());
         existingPatient.setFirstName(patient.getFirstName());
         existingPatient.setMiddleName(patient.getMiddleName());
@@ -78,15 +209,12 @@ public class PatientServiceImpl implements PatientService {
         existingPatient.setBirthDate(patient.getBirthDate());
         existingPatient.setInsuranceNumber(patient.getInsuranceNumber());
         if (patient.getDiseases() != null) {
-            existingPatient.getDiseases().clear();
-            for (Disease disease : patient.getDiseases()) {
-                disease.setPatient(existingPatient);
-                validateDisease(disease);
-                existingPatient.getDiseases().add(disease);
-            }
+            mergeDiseases(existingPatient, patient.getDiseases());
+            entityManager.lock(existingPatient, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
         }
         try {
             Patient updatedPatient = patientRepository.save(existingPatient);
+            patientRepository.flush();
             logger.info("Updated patient with ID: {}", updatedPatient.getId());
             return updatedPatient;
         } catch (DataIntegrityViolationException e) {
@@ -96,12 +224,97 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
-    public void deletePatient(Long id) {
-        if (!patientRepository.existsById(id)) {
-            logger.warn("Attempt to delete non-existent patient with ID: {}", id);
-            throw new EntityNotFoundException("Пациент с ID " + id + " не найден");
+    @Transactional
+    public PatientSummary patchPatient(Long id, JsonNode patch, Long expectedVersion) {
+        Patient patient = patientRepository.findWithoutDiseasesById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Пациент с ID " + id + " не найден"));
+        VersionPrecondition.check(expectedVersion, patient.getVersion());
+        JsonMergePatch.apply(objectMapper, validator, patch, patient, PATCHABLE_FIELDS, REQUIRED_FIELDS);
+        try {
+            patientRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            logger.error("Data integrity violation while patching patient with ID: {}", id, e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data integrity violation");
+        }
+        logger.info("Patched patient with ID: {}, fields: {}", id, patch.size());
+        return toSummary(patient);
+    }
+
+    private static PatientSummary toSummary(Patient patient) {
+        return new PatientSummary(patient.getId(), patient.getLastName(), patient.getFirstName(),
+                patient.getMiddleName(), patient.getGender(), patient.getBirthDate(), patient.getInsuranceNumber(),
+                patient.getVersion());
+    }
+
+    private void mergeDiseases(Patient existingPatient, List<Disease> incoming) {
+        List<Disease> current = existingPatient.getDiseases();
+        // Disease и Patient используют equals/hashCode Lombok по всем полям, поэтому сравнение по ссылке
+        Set<Disease> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Long, Disease> currentById = new HashMap<>();
+        for (Disease disease : current) {
+            present.add(disease);
+            if (disease.getId() != null) {
+                currentById.put(disease.getId(), disease);
+            }
+        }
+        Set<Disease> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Disease> added = new ArrayList<>();
+        for (Disease disease : incoming) {
+            validateDisease(disease);
+            if (disease.getId() == null) {
+                disease.setPatient(existingPatient);
+                kept.add(disease);
+                // Ещё не сохранённое заболевание уже может быть в списке пациента
+                if (!present.contains(disease)) {
+                    added.add(disease);
+                }
+                continue;
+            }
+            Disease target = currentById.get(disease.getId());
+            if (target == null) {
+                throw new IllegalArgumentException("Заболевание с ID " + disease.getId()
+                        + " не принадлежит пациенту с ID " + existingPatient.getId());
+            }
+            copyChangedFields(disease, target);
+            kept.add(target);
+        }
+        int before = current.size();
+        current.removeIf(disease -> !kept.contains(disease));
+        int removed = before - current.size();
+        current.addAll(added);
+        logger.debug("Merged diseases for patient ID {}: {} kept, {} added, {} removed",
+                existingPatient.getId(), current.size() - added.size(), added.size(), removed);
+    }
+
+    private static void copyChangedFields(Disease source, Disease target) {
+        if (!Objects.equals(source.getMkb10().getCode(), target.getMkb10().getCode())) {
+            target.setMkb10(source.getMkb10());
+        }
+        if (!Objects.equals(source.getStartDate(), target.getStartDate())) {
+            target.setStartDate(source.getStartDate());
+        }
+        if (!Objects.equals(source.getEndDate(), target.getEndDate())) {
+            target.setEndDate(source.getEndDate());
         }
-        patientRepository.deleteById(id);
+        if (!Objects.equals(source.getPrescriptions(), target.getPrescriptions())) {
+            target.setPrescriptions(source.getPrescriptions());
+        }
+        if (!Objects.equals(source.getSickLeaveIssued(), target.getSickLeaveIssued())) {
+            target.setSickLeaveIssued(source.getSickLeaveIssued());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deletePatient(Long id, Long expectedVersion) {
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.warn("Attempt to delete non-existent patient with ID: {}", id);
+                    return new EntityNotFoundException("Пациент с ID " + id + " не найден");
+                });
+        VersionPrecondition.check(expectedVersion, patient.getVersion());
+        // Удаляется тот же экземпляр: DELETE ... WHERE version = ? поймает запись, изменённую после проверки
+        patientRepository.delete(patient);
         logger.info("Deleted patient with ID: {}", id);
     }
 
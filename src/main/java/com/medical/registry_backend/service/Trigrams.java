@@ -0,0 +1,81 @@
+package com.medical.registry_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Триграммы в том же виде, что строит pg_trgm: текст приводится к нижнему регистру,
+ * Ё заменяется на Е, каждое слово дополняется двумя пробелами слева и одним справа.
+ * Используется для нечёткого поиска по ФИО, когда БД не поддерживает pg_trgm.
+ */
+final class Trigrams {
+
+    private Trigrams() {
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    static Set<String> of(List<String> words) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : words) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Сходство множеств триграмм: доля общих триграмм от объединения, как similarity() в pg_trgm.
+     */
+    static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    /**
+     * Наибольшее сходство запроса с непрерывной последовательностью слов текста — приближение
+     * word_similarity() из pg_trgm: запрос «Иваннов» сравнивается с фамилией, а не со всем ФИО.
+     */
+    static double wordSimilarity(String query, String text) {
+        Set<String> queryTrigrams = of(words(query));
+        List<String> textWords = words(text);
+        double best = 0;
+        for (int from = 0; from < textWords.size(); from++) {
+            for (int to = from + 1; to <= textWords.size(); to++) {
+                best = Math.max(best, similarity(queryTrigrams, of(textWords.subList(from, to))));
+            }
+        }
+        return best;
+    }
+}
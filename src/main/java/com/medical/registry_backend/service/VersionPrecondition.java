@@ -0,0 +1,25 @@
+package com.medical.registry_backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Проверка версии из If-Match против текущей версии записи, прочитанной в той же транзакции.
+ * Если запись изменится между проверкой и записью, конфликт обнаружит {@code @Version} при сбросе.
+ */
+final class VersionPrecondition {
+
+    private VersionPrecondition() {
+    }
+
+    /**
+     * @param expectedVersion Версия из If-Match или {@code null}, если проверка не нужна
+     * @throws ResponseStatusException 412, если версии не совпадают
+     */
+    static void check(Long expectedVersion, Long currentVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Запись изменена другим запросом: текущая версия " + currentVersion);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -129,6 +130,7 @@ class DiseaseControllerIntegrationTest {
         """.formatted(samplePatientId, LocalDate.now().toString(), LocalDate.now().toString());
 
         MvcResult result = mockMvc.perform(put("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(updatedDiseaseJson))
                 .andDo(MockMvcResultHandlers.print())
@@ -172,6 +174,134 @@ class DiseaseControllerIntegrationTest {
     }
 
 
+    @Test
+    void getDiseasesAfterShouldWalkAllPagesByCursor() throws Exception {
+        Patient patient = patientRepository.findById(samplePatientId).orElseThrow();
+        for (int i = 1; i <= 4; i++) {
+            Disease disease = new Disease();
+            disease.setPatient(patient);
+            disease.setMkb10(sampleMkb10);
+            disease.setStartDate(LocalDate.of(2024, i, 1));
+            disease.setPrescriptions("Назначение " + i);
+            disease.setSickLeaveIssued(false);
+            diseaseRepository.save(disease);
+        }
+
+        MvcResult first = mockMvc.perform(get("/patient/" + samplePatientId + "/disease")
+                        .param("after", "")
+                        .param("size", "3")
+                        .param("sort", "startDate,desc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].prescriptions").value("Test prescription"))
+                .andExpect(jsonPath("$.content[1].startDate").value("2024-04-01"))
+                .andExpect(jsonPath("$.content[2].mkb10.code").value("A00.0"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn();
+        String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/patient/" + samplePatientId + "/disease")
+                        .param("after", cursor)
+                        .param("size", "3")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].startDate").value("2024-02-01"))
+                .andExpect(jsonPath("$.content[1].startDate").value("2024-01-01"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void getDiseasesAfterForMissingPatient() throws Exception {
+        mockMvc.perform(get("/patient/999999/disease")
+                        .param("after", "")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Пациент с ID 999999 не найден"));
+    }
+
+    @Test
+    void patchDiseaseShouldChangeOnlyGivenFields() throws Exception {
+        Mkb10 flu = new Mkb10();
+        flu.setCode("J10.1");
+        flu.setName("Грипп с другими респираторными проявлениями");
+        mkb10Repository.save(flu);
+
+        mockMvc.perform(patch("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"endDate\": \"%s\", \"mkb10\": {\"code\": \"J10.1\"}}".formatted(LocalDate.now())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(sampleDiseaseId))
+                .andExpect(jsonPath("$.endDate").value(LocalDate.now().toString()))
+                .andExpect(jsonPath("$.mkb10.code").value("J10.1"))
+                .andExpect(jsonPath("$.mkb10.name").value("Грипп с другими респираторными проявлениями"))
+                .andExpect(jsonPath("$.prescriptions").value("Test prescription"));
+
+        mockMvc.perform(patch("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"endDate\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.endDate").isEmpty())
+                .andExpect(jsonPath("$.mkb10.code").value("J10.1"));
+
+        assertEquals("Test Disease", mkb10Repository.findById("A00.0").orElseThrow().getName());
+    }
+
+    @Test
+    void patchDiseaseWithInvalidData() throws Exception {
+        mockMvc.perform(patch("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"prescriptions\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Поле prescriptions обязательно и не может быть удалено"));
+
+        mockMvc.perform(patch("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"mkb10\": {\"code\": \"Z99.99\"}}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Код МКБ-10 Z99.99 не найден"));
+
+        mockMvc.perform(patch("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"startDate\": \"вчера\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
+                .andExpect(jsonPath("$.mkb10.code").value("A00.0"));
+    }
+
+    @Test
+    void changingDiseaseShouldChangePatientEtag() throws Exception {
+        String patientEtag = mockMvc.perform(get("/patient/" + samplePatientId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String diseaseEtag = mockMvc.perform(get("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, diseaseEtag)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"prescriptions\": \"Обильное питьё\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/patient/" + samplePatientId).header(HttpHeaders.IF_NONE_MATCH, patientEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diseases[0].prescriptions").value("Обильное питьё"));
+        mockMvc.perform(get("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_NONE_MATCH, diseaseEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, diseaseEtag))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void getDiseaseById() throws Exception {
         mockMvc.perform(get("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
@@ -188,6 +318,7 @@ class DiseaseControllerIntegrationTest {
     @Test
     void deleteDisease() throws Exception {
         mockMvc.perform(delete("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId + "/disease/" + sampleDiseaseId))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
@@ -266,6 +397,7 @@ class DiseaseControllerIntegrationTest {
     @Test
     void deleteDiseaseNotFound() throws Exception {
         mockMvc.perform(delete("/patient/" + samplePatientId + "/disease/999")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Заболевание с ID 999 не найдено"));
@@ -283,8 +415,16 @@ class DiseaseControllerIntegrationTest {
         Long anotherPatientId = anotherPatient.getId();
 
         mockMvc.perform(delete("/patient/" + anotherPatientId + "/disease/" + sampleDiseaseId)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Заболевание не принадлежит пациенту с ID " + anotherPatientId));
     }
+
+    /**
+     * Текущий ETag ресурса для заголовка If-Match.
+     */
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
 }
\ No newline at end of file
@@ -49,12 +49,15 @@ public class Mkb10ControllerCacheIntegrationTest {
     }
 
     @Test
-    void testManualCaffeineCachingOnGetByCode() throws Exception {
-        Mkb10 cachedBefore = mkb10Service.getMkb10ByCode(testCode);
-        assertNotNull(cachedBefore, "Первый вызов должен вернуть объект");
+    void getByCodeShouldBeServedFromPublishedDictionary() throws Exception {
+        mkb10Service.reloadDictionary();
+        mkb10Repository.deleteAll();
 
-        Mkb10 cachedAfter = mkb10Service.getMkb10ByCode(testCode);
-        assertSame(cachedBefore, cachedAfter, "Должен быть возвращён тот же объект из кэша");
+        Mkb10 fromSnapshot = mkb10Service.getMkb10ByCode(testCode);
+        assertNotNull(fromSnapshot, "Код должен находиться в снимке без обращения к БД");
+        assertEquals("Cholera due to Vibrio cholerae", fromSnapshot.getName());
+        assertSame(fromSnapshot, mkb10Service.getMkb10ByCode(testCode), "Должен быть возвращён тот же объект из снимка");
+        assertNull(mkb10Service.getMkb10ByCode("Z99.9"));
 
         mockMvc.perform(get("/dictionary/mkb10/" + testCode)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -62,4 +65,4 @@ public class Mkb10ControllerCacheIntegrationTest {
                 .andExpect(jsonPath("$.code").value(testCode))
                 .andExpect(jsonPath("$.name").value("Cholera due to Vibrio cholerae"));
     }
-}
\ No newline at end of file
+}
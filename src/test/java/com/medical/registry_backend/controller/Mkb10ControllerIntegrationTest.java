@@ -1,9 +1,16 @@
 package com.medical.registry_backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medical.registry_backend.entity.Disease;
 import com.medical.registry_backend.entity.Mkb10;
+import com.medical.registry_backend.entity.Mkb10Node;
+import com.medical.registry_backend.entity.Mkb10NodeType;
+import com.medical.registry_backend.entity.Patient;
 import com.medical.registry_backend.repository.DiseaseRepository;
 import com.medical.registry_backend.repository.Mkb10Repository;
+import com.medical.registry_backend.repository.PatientRepository;
+import com.medical.registry_backend.service.Mkb10HierarchyLoader;
+import com.medical.registry_backend.service.Mkb10ServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +22,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,14 +44,24 @@ class Mkb10ControllerIntegrationTest {
     @Autowired
     private DiseaseRepository diseaseRepository;
 
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private Mkb10HierarchyLoader mkb10HierarchyLoader;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private Mkb10ServiceImpl mkb10Service;
+
     private String sampleMkb10Code;
 
     @BeforeEach
     void setUp() throws Exception {
         diseaseRepository.deleteAll();
+        patientRepository.deleteAll();
         mkb10Repository.deleteAll();
 
         Mkb10 mkb10 = new Mkb10();
@@ -55,6 +76,7 @@ class Mkb10ControllerIntegrationTest {
         mkb10_2.setName("Varicella meningitis");
         mkb10Repository.save(mkb10_2);
         System.out.println("Saved Mkb10: code=" + mkb10_2.getCode() + ", name=" + mkb10_2.getName());
+        mkb10Service.reloadDictionary();
     }
 
     @Test
@@ -106,16 +128,172 @@ class Mkb10ControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void resolveMkb10Codes() throws Exception {
+        mockMvc.perform(post("/dictionary/mkb10/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"codes\": [\"B01.0\", \"Z99.9\", \"A00.0\", \"B01.0\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found.length()").value(2))
+                .andExpect(jsonPath("$.found[0].code").value("B01.0"))
+                .andExpect(jsonPath("$.found[1].code").value(sampleMkb10Code))
+                .andExpect(jsonPath("$.found[1].name").value("Cholera due to Vibrio cholerae"))
+                .andExpect(jsonPath("$.missing[0]").value("Z99.9"));
+    }
+
+    @Test
+    void resolveMkb10CodesEmptyList() throws Exception {
+        mockMvc.perform(post("/dictionary/mkb10/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"codes\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.codes").value("Список кодов не может быть пустым"));
+    }
+
+    @Test
+    void suggestMkb10() throws Exception {
+        mockMvc.perform(get("/dictionary/mkb10/suggest")
+                        .param("prefix", "vari")
+                        .param("limit", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].code").value("B01.0"));
+
+        mockMvc.perform(get("/dictionary/mkb10/suggest")
+                        .param("prefix", "a00.")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value(sampleMkb10Code));
+    }
+
+    @Test
+    void fullTextSearchMkb10() throws Exception {
+        Mkb10 cholera = new Mkb10();
+        cholera.setCode("A00.9");
+        cholera.setName("Холера неуточненная");
+        mkb10Repository.save(cholera);
+        mkb10Service.reloadDictionary();
+
+        mockMvc.perform(get("/dictionary/mkb10/search")
+                        .param("query", "холеры")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].code").value("A00.9"))
+                .andExpect(jsonPath("$[0].rank").isNumber());
+
+        mockMvc.perform(get("/dictionary/mkb10/search")
+                        .param("query", " ")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Строка поиска не должна быть пустой"));
+    }
+
+    @Test
+    void navigateMkb10Hierarchy() throws Exception {
+        mkb10HierarchyLoader.replace(List.of(
+                node(1L, null, "01", null, Mkb10NodeType.CHAPTER),
+                node(2L, 1L, "0101", null, Mkb10NodeType.BLOCK),
+                node(3L, 2L, "0101A00", "A00", Mkb10NodeType.CATEGORY),
+                node(4L, 3L, "0101A000", "A00.0", Mkb10NodeType.SUBCATEGORY),
+                node(5L, 1L, "0102", null, Mkb10NodeType.BLOCK),
+                node(6L, 5L, "0102B01", "B01", Mkb10NodeType.CATEGORY),
+                node(7L, 6L, "0102B010", "B01.0", Mkb10NodeType.SUBCATEGORY),
+                node(8L, 6L, "0102B011", "A00.0", Mkb10NodeType.SUBCATEGORY)));
+        Patient patient = new Patient();
+        patient.setLastName("Иванов");
+        patient.setFirstName("Иван");
+        patient.setGender("М");
+        patient.setBirthDate(LocalDate.of(1990, 1, 1));
+        patient.setInsuranceNumber("1111222233334444");
+        patientRepository.save(patient);
+        for (String code : List.of("A00.0", "A00.0", "B01.0")) {
+            Disease disease = new Disease();
+            disease.setPatient(patient);
+            disease.setMkb10(mkb10Repository.findById(code).orElseThrow());
+            disease.setStartDate(LocalDate.of(2025, 1, 15));
+            disease.setPrescriptions("Постельный режим");
+            disease.setSickLeaveIssued(false);
+            diseaseRepository.save(disease);
+        }
+
+        mockMvc.perform(get("/dictionary/mkb10/tree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("CHAPTER"));
+        mockMvc.perform(get("/dictionary/mkb10/tree/1/children"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(2, 5)));
+        mockMvc.perform(get("/dictionary/mkb10/tree/code/A00.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(4));
+        mockMvc.perform(get("/dictionary/mkb10/tree/4/ancestors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(1, 2, 3)));
+        mockMvc.perform(get("/dictionary/mkb10/tree/2/subtree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(2, 3, 4)));
+        mockMvc.perform(get("/dictionary/mkb10/tree/2/disease-count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.node.path").value("0101"))
+                .andExpect(jsonPath("$.diseaseCount").value(2));
+        // A00.0 встречается в двух узлах главы, но каждое заболевание считается один раз
+        mockMvc.perform(get("/dictionary/mkb10/tree/1/disease-count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diseaseCount").value(3));
+        mockMvc.perform(get("/dictionary/mkb10/tree/999/children"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Узел МКБ-10 с ID 999 не найден"));
+    }
+
+    private static Mkb10Node node(Long id, Long parentId, String path, String code, Mkb10NodeType type) {
+        Mkb10Node node = new Mkb10Node();
+        node.setId(id);
+        node.setParentId(parentId);
+        node.setPath(path);
+        node.setCode(code);
+        node.setName(code == null ? "Узел " + path : "Рубрика " + code);
+        node.setType(type);
+        return node;
+    }
+
+    @Test
+    void readinessShouldReportDictionarySeparatelyFromLiveness() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.components.mkb10Dictionary.status").value("UP"))
+                .andExpect(jsonPath("$.components.mkb10Dictionary.details.size").value(2));
+
+        mockMvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.components").doesNotExist());
+    }
+
     @Test
     void updateMkb10Data() throws Exception {
         MvcResult result = mockMvc.perform(post("/dictionary/mkb10/update")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andDo(MockMvcResultHandlers.print())
-                .andExpect(status().isOk())
-                .andExpect(content().string("Обновление справочника МКБ-10 инициировано"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").isNotEmpty())
+                .andExpect(header().exists("Location"))
                 .andReturn();
 
-        String content = result.getResponse().getContentAsString();
-        System.out.println("updateMkb10Data Response: " + content);
+        String jobId = objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+        assertTrue(result.getResponse().getHeader("Location").endsWith("/dictionary/mkb10/update/" + jobId));
+        String state = "RUNNING";
+        for (int attempt = 0; attempt < 500 && "RUNNING".equals(state); attempt++) {
+            Thread.sleep(20);
+            MvcResult poll = mockMvc.perform(get("/dictionary/mkb10/update/" + jobId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(jobId))
+                    .andReturn();
+            state = objectMapper.readTree(poll.getResponse().getContentAsString()).get("state").asText();
+        }
+        assertNotEquals("RUNNING", state);
+
+        mockMvc.perform(get("/dictionary/mkb10/update/unknown"))
+                .andExpect(status().isNotFound());
     }
 }
\ No newline at end of file
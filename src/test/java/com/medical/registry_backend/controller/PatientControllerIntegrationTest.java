@@ -1,5 +1,6 @@
 package com.medical.registry_backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.medical.registry_backend.entity.Disease;
@@ -8,6 +9,7 @@ import com.medical.registry_backend.entity.Patient;
 import com.medical.registry_backend.repository.DiseaseRepository;
 import com.medical.registry_backend.repository.Mkb10Repository;
 import com.medical.registry_backend.repository.PatientRepository;
+import com.medical.registry_backend.service.Mkb10Service;
 import com.medical.registry_backend.service.PatientService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,7 +27,9 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +61,9 @@ class PatientControllerIntegrationTest {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private Mkb10Service mkb10Service;
+
     private Long samplePatientId;
 
     @BeforeEach
@@ -159,6 +167,302 @@ class PatientControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[0].diseases[0].mkb10.code").value("A00.0"));
     }
 
+    @Test
+    void getAllPatientsSecondPageSortedByLastName() throws Exception {
+        Mkb10 mkb10 = mkb10Repository.findById("A00.0").orElseThrow();
+        for (String lastName : List.of("Борисов", "Алексеев", "Васильев")) {
+            Patient patient = new Patient();
+            patient.setLastName(lastName);
+            patient.setFirstName("Иван");
+            patient.setGender("М");
+            patient.setBirthDate(LocalDate.of(1980, 1, 1));
+            patient.setInsuranceNumber(String.format("%016d", lastName.length() * 1000L + lastName.charAt(0)));
+            for (int i = 0; i < 3; i++) {
+                Disease disease = new Disease();
+                disease.setPatient(patient);
+                disease.setMkb10(mkb10);
+                disease.setStartDate(LocalDate.of(2024, 1, 1 + i));
+                disease.setPrescriptions("Назначение " + i);
+                disease.setSickLeaveIssued(false);
+                patient.getDiseases().add(disease);
+            }
+            patientRepository.save(patient);
+        }
+
+        mockMvc.perform(get("/patient")
+                        .param("page", "1")
+                        .param("size", "2")
+                        .param("sort", "lastName,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].lastName").value("Васильев"))
+                .andExpect(jsonPath("$.content[0].diseases.length()").value(3))
+                .andExpect(jsonPath("$.content[1].lastName").value("Генри"))
+                .andExpect(jsonPath("$.content[1].diseases[0].mkb10.code").value("A00.0"));
+    }
+
+    @Test
+    void getPatientSummaries() throws Exception {
+        mockMvc.perform(get("/patient")
+                        .param("view", "summary")
+                        .param("diseaseCount", "true")
+                        .param("sort", "lastName,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(samplePatientId))
+                .andExpect(jsonPath("$.content[0].lastName").value("Генри"))
+                .andExpect(jsonPath("$.content[0].insuranceNumber").value("1234567890123456"))
+                .andExpect(jsonPath("$.content[0].diseaseCount").value(1))
+                .andExpect(jsonPath("$.content[0].diseases").doesNotExist());
+
+        mockMvc.perform(get("/patient")
+                        .param("view", "summary")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lastName").value("Генри"))
+                .andExpect(jsonPath("$.content[0].diseaseCount").doesNotExist());
+    }
+
+    @Test
+    void getPatientsAfterShouldWalkAllPagesByCursor() throws Exception {
+        for (String lastName : List.of("Борисов", "Алексеев", "Васильев", "Борисов")) {
+            Patient patient = new Patient();
+            patient.setLastName(lastName);
+            patient.setFirstName("Иван");
+            patient.setGender("М");
+            patient.setBirthDate(LocalDate.of(1980, 1, 1));
+            patient.setInsuranceNumber(String.format("%016d", patientRepository.count() + 1));
+            patientRepository.save(patient);
+        }
+
+        List<String> lastNames = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/patient")
+                            .param("after", cursor)
+                            .param("size", "2")
+                            .param("sort", "lastName,asc")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andExpect(jsonPath("$.size").value(2))
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("content").forEach(patient -> lastNames.add(patient.get("lastName").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("Алексеев", "Борисов", "Борисов", "Васильев", "Генри"), lastNames);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void getPatientsAfterWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/patient")
+                        .param("after", "не курсор")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректный курсор"));
+    }
+
+    @Test
+    void searchPatientsByNamePrefixAndBirthDate() throws Exception {
+        String[][] people = {
+                {"Иванов", "Пётр", "1980-01-01"},
+                {"Иванова", "Анна", "1980-01-01"},
+                {"Ивакин", "Олег", "1980-01-01"},
+                {"Иванов", "Сергей", "1975-03-03"},
+                {"Сидоров", "Иван", "1980-01-01"}};
+        for (String[] person : people) {
+            Patient patient = new Patient();
+            patient.setLastName(person[0]);
+            patient.setFirstName(person[1]);
+            patient.setGender("М");
+            patient.setBirthDate(LocalDate.parse(person[2]));
+            patient.setInsuranceNumber(String.format("%016d", patientRepository.count() + 1));
+            patientRepository.save(patient);
+        }
+
+        List<String> found = new ArrayList<>();
+        String cursor = "";
+        do {
+            MvcResult result = mockMvc.perform(get("/patient/search")
+                            .param("lastName", "иван")
+                            .param("birthDate", "1980-01-01")
+                            .param("after", cursor)
+                            .param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].diseases").doesNotExist())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("content").forEach(patient ->
+                    found.add(patient.get("lastName").asText() + " " + patient.get("firstName").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of("Иванов Пётр", "Иванова Анна"), found);
+
+        mockMvc.perform(get("/patient/search").param("firstName", "ИВ%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+        mockMvc.perform(get("/patient/search").param("firstName", "ревир"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(samplePatientId));
+    }
+
+    @Test
+    void searchPatientsByInsuranceNumber() throws Exception {
+        mockMvc.perform(get("/patient/search").param("insuranceNumber", "1234567890123456"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].lastName").value("Генри"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+        mockMvc.perform(get("/patient/search").param("insuranceNumber", "0000000000000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    void searchPatientsWithoutCriteria() throws Exception {
+        mockMvc.perform(get("/patient/search").param("lastName", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Укажите хотя бы один критерий поиска"));
+    }
+
+    @Test
+    void searchPatientsFuzzyShouldRankTyposAndYo() throws Exception {
+        String[][] people = {{"Иванов", "Пётр"}, {"Семёнов", "Олег"}, {"Сидоров", "Иван"}};
+        for (String[] person : people) {
+            Patient patient = new Patient();
+            patient.setLastName(person[0]);
+            patient.setFirstName(person[1]);
+            patient.setGender("М");
+            patient.setBirthDate(LocalDate.of(1980, 1, 1));
+            patient.setInsuranceNumber(String.format("%016d", patientRepository.count() + 1));
+            patientRepository.save(patient);
+        }
+
+        mockMvc.perform(get("/patient/search").param("fuzzy", "Иваннов Петр"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].patient.lastName").value("Иванов"))
+                .andExpect(jsonPath("$[0].patient.diseases").doesNotExist())
+                .andExpect(jsonPath("$[0].score").isNumber());
+        mockMvc.perform(get("/patient/search").param("fuzzy", "семенов"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].patient.lastName").value("Семёнов"))
+                .andExpect(jsonPath("$[0].score").value(1.0));
+        mockMvc.perform(get("/patient/search").param("fuzzy", " ").param("limit", "5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Строка поиска не должна быть пустой"));
+    }
+
+    @Test
+    void exportPatientsAsNdjson() throws Exception {
+        Patient withoutDiseases = new Patient();
+        withoutDiseases.setLastName("Алексеев");
+        withoutDiseases.setFirstName("Пётр");
+        withoutDiseases.setGender("М");
+        withoutDiseases.setBirthDate(LocalDate.of(1970, 5, 6));
+        withoutDiseases.setInsuranceNumber("1111222233334444");
+        patientRepository.save(withoutDiseases);
+
+        MvcResult started = mockMvc.perform(get("/patient/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"patients.ndjson\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            assertTrue(line.startsWith("{"), line);
+        }
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(samplePatientId, first.get("id").asLong());
+        assertEquals("Генри", first.get("lastName").asText());
+        assertEquals("A00.0", first.get("diseases").get(0).get("mkb10Code").asText());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("Алексеев", second.get("lastName").asText());
+        assertEquals(0, second.get("diseases").size());
+    }
+
+    @Test
+    void exportPatientsAsCsv() throws Exception {
+        Patient patient = patientRepository.findById(samplePatientId).orElseThrow();
+        patient.getDiseases().get(0).setPrescriptions("Покой, \"тёплое\" питьё");
+        patientRepository.save(patient);
+
+        MvcResult started = mockMvc.perform(get("/patient/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("patient_id,last_name,"));
+        assertTrue(lines[1].startsWith(samplePatientId + ",Генри,Ревирс,,М,1990-01-01,1234567890123456,"));
+        assertTrue(lines[1].endsWith(",A00.0," + LocalDate.now() + ",,\"Покой, \"\"тёплое\"\" питьё\",false"));
+    }
+
+    @Test
+    void exportPatientsWithUnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/patient/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Формат выгрузки xml не поддерживается, допустимо: ndjson, csv"));
+    }
+
+    @Test
+    void importPatientsShouldSaveValidRecordsAndReportErrors() throws Exception {
+        mkb10Service.reloadDictionary();
+        String ndjson = String.join("\n",
+                "{\"lastName\":\"Иванов\",\"firstName\":\"Иван\",\"gender\":\"М\",\"birthDate\":\"1990-01-01\",\"insuranceNumber\":\"0000000000000001\","
+                        + "\"diseases\":[{\"mkb10Code\":\"A00.0\",\"startDate\":\"2025-01-15\",\"prescriptions\":\"Покой\",\"sickLeaveIssued\":true}]}",
+                "{\"lastName\":\"Петров\",\"firstName\":\"Пётр\",\"gender\":\"М\",\"birthDate\":\"1980-02-02\",\"insuranceNumber\":\"0000000000000002\","
+                        + "\"diseases\":[{\"mkb10Code\":\"Z99.99\",\"startDate\":\"2025-01-15\",\"prescriptions\":\"Покой\",\"sickLeaveIssued\":true}]}",
+                "",
+                "{\"lastName\":\"Дубль\",\"firstName\":\"Ревирс\",\"gender\":\"М\",\"birthDate\":\"1990-01-01\",\"insuranceNumber\":\"1234567890123456\"}",
+                "{\"lastName\":\"Smith\",\"firstName\":\"Анна\",\"gender\":\"Ж\",\"birthDate\":\"1985-05-12\",\"insuranceNumber\":\"0000000000000003\"}",
+                "{не json",
+                "{\"lastName\":\"Сидорова\",\"firstName\":\"Анна\",\"gender\":\"Ж\",\"birthDate\":\"1985-05-12\",\"insuranceNumber\":\"0000000000000004\",\"diseases\":[]}",
+                "{\"lastName\":\"Сидоров\",\"firstName\":\"Олег\",\"gender\":\"М\",\"birthDate\":\"1985-05-12\",\"insuranceNumber\":\"0000000000000004\"}",
+                "{\"lastName\":\"Кузнецов\",\"firstName\":\"Олег\",\"birthDate\":\"1985-05-12\",\"insuranceNumber\":\"0000000000000005\"}");
+
+        mockMvc.perform(post("/patient/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(6))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Код МКБ-10 Z99.99 не найден"))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("Пациент с номером страховки 1234567890123456 уже существует"))
+                .andExpect(jsonPath("$.errors[2].line").value(5))
+                .andExpect(jsonPath("$.errors[2].message").value("Фамилия должна содержать только кириллицу и дефис"))
+                .andExpect(jsonPath("$.errors[3].line").value(6))
+                .andExpect(jsonPath("$.errors[4].line").value(8))
+                .andExpect(jsonPath("$.errors[4].insuranceNumber").value("0000000000000004"))
+                .andExpect(jsonPath("$.errors[5].message").value("Поле gender обязательно"));
+
+        assertEquals(3, patientRepository.count());
+        Patient imported = patientRepository.findAll().stream()
+                .filter(patient -> "0000000000000001".equals(patient.getInsuranceNumber()))
+                .findFirst().orElseThrow();
+        assertEquals("A00.0", patientService.getPatientById(imported.getId()).getDiseases().get(0).getMkb10().getCode());
+    }
+
     @Test
     void getPatientById() throws Exception {
         if (samplePatientId == null) {
@@ -182,6 +486,68 @@ class PatientControllerIntegrationTest {
         assertEquals("Ревирс", responsePatient.getFirstName());
     }
 
+    @Test
+    void getPatientByIdShouldAnswerNotModifiedForCurrentEtag() throws Exception {
+        String etag = mockMvc.perform(get("/patient/" + samplePatientId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/patient/" + samplePatientId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/patient/" + samplePatientId).header(HttpHeaders.IF_NONE_MATCH, "\"999\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Генри"));
+    }
+
+    @Test
+    void writesWithoutIfMatchShouldReturnPreconditionRequired() throws Exception {
+        mockMvc.perform(patch("/patient/" + samplePatientId)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"lastName\": \"Сидоров\"}"))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(delete("/patient/" + samplePatientId))
+                .andExpect(status().isPreconditionRequired());
+
+        assertEquals("Генри", patientService.getPatientById(samplePatientId).getLastName());
+    }
+
+    @Test
+    void updatePatientWithStaleIfMatchShouldReturnPreconditionFailed() throws Exception {
+        String etag = mockMvc.perform(get("/patient/" + samplePatientId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String body = """
+                {
+                  "lastName": "Петров",
+                  "firstName": "Петр",
+                  "gender": "М",
+                  "birthDate": "1990-02-02",
+                  "insuranceNumber": "6543210987654321"
+                }
+                """;
+
+        String newEtag = mockMvc.perform(put("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+
+        mockMvc.perform(put("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("Петров", "Сидоров")))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/patient/" + samplePatientId).header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+
+        assertEquals("Петров", patientService.getPatientById(samplePatientId).getLastName());
+    }
+
     @Test
     void updatePatient() throws Exception {
         if (samplePatientId == null) {
@@ -201,6 +567,7 @@ class PatientControllerIntegrationTest {
                 """;
 
         MvcResult result = mockMvc.perform(put("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(updatedPatientJson))
                 .andExpect(status().isOk())
@@ -221,6 +588,117 @@ class PatientControllerIntegrationTest {
         assertEquals("6543210987654321", responsePatient.getInsuranceNumber());
     }
 
+    @Test
+    void updatePatientShouldKeepUnchangedDiseaseIds() throws Exception {
+        Long diseaseId = patientService.getPatientById(samplePatientId).getDiseases().get(0).getId();
+        String body = """
+                {
+                  "lastName": "Генри",
+                  "firstName": "Ревирс",
+                  "gender": "М",
+                  "birthDate": "1990-01-01",
+                  "insuranceNumber": "1234567890123456",
+                  "diseases": [
+                    {"id": %d, "mkb10": {"code": "A00.0"}, "startDate": "%s",
+                     "prescriptions": "Изменённое назначение", "sickLeaveIssued": false},
+                    {"mkb10": {"code": "A00.0"}, "startDate": "%s",
+                     "prescriptions": "Новое назначение", "sickLeaveIssued": true}
+                  ]
+                }
+                """.formatted(diseaseId, LocalDate.now(), LocalDate.now());
+
+        mockMvc.perform(put("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diseases.length()").value(2));
+
+        List<Disease> diseases = patientService.getPatientById(samplePatientId).getDiseases();
+        assertEquals(2, diseases.size());
+        Disease updated = diseases.stream().filter(d -> d.getId().equals(diseaseId)).findFirst().orElseThrow();
+        assertEquals("Изменённое назначение", updated.getPrescriptions());
+        Long addedId = diseases.stream().map(Disease::getId).filter(id -> !id.equals(diseaseId)).findFirst().orElseThrow();
+
+        String removeFirst = """
+                {
+                  "lastName": "Генри",
+                  "firstName": "Ревирс",
+                  "gender": "М",
+                  "birthDate": "1990-01-01",
+                  "insuranceNumber": "1234567890123456",
+                  "diseases": [
+                    {"id": %d, "mkb10": {"code": "A00.0"}, "startDate": "%s",
+                     "prescriptions": "Новое назначение", "sickLeaveIssued": true}
+                  ]
+                }
+                """.formatted(addedId, LocalDate.now());
+
+        mockMvc.perform(put("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(removeFirst))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diseases.length()").value(1))
+                .andExpect(jsonPath("$.diseases[0].id").value(addedId));
+
+        assertFalse(diseaseRepository.existsById(diseaseId));
+        assertTrue(diseaseRepository.existsById(addedId));
+    }
+
+    @Test
+    void patchPatientShouldChangeOnlyGivenFields() throws Exception {
+        patientService.patchPatient(samplePatientId, objectMapper.readTree("{\"middleName\": \"Ивановна\"}"), null);
+
+        mockMvc.perform(patch("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"lastName\": \"Петрова\", \"middleName\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Петрова"))
+                .andExpect(jsonPath("$.middleName").isEmpty())
+                .andExpect(jsonPath("$.insuranceNumber").value("1234567890123456"))
+                .andExpect(jsonPath("$.diseases").doesNotExist());
+
+        Patient patched = patientService.getPatientById(samplePatientId);
+        assertEquals("Петрова", patched.getLastName());
+        assertNull(patched.getMiddleName());
+        assertEquals("Ревирс", patched.getFirstName());
+        assertEquals(1, patched.getDiseases().size());
+    }
+
+    @Test
+    void patchPatientWithInvalidFields() throws Exception {
+        mockMvc.perform(patch("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"diseases\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Поле diseases нельзя изменить через PATCH"));
+
+        mockMvc.perform(patch("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"firstName\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Поле firstName обязательно и не может быть удалено"));
+
+        mockMvc.perform(patch("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"gender\": \"X\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Пол должен быть 'М' или 'Ж'"));
+
+        mockMvc.perform(patch("/patient/999999")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"lastName\": \"Петрова\"}"))
+                .andExpect(status().isNotFound());
+
+        assertEquals("М", patientService.getPatientById(samplePatientId).getGender());
+    }
+
     @Test
     void updatePatientWithInvalidData() throws Exception {
         if (samplePatientId == null) {
@@ -239,6 +717,7 @@ class PatientControllerIntegrationTest {
                 """;
 
         MvcResult result = mockMvc.perform(put("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(invalidPatientJson))
                 .andExpect(status().isBadRequest())
@@ -256,6 +735,7 @@ class PatientControllerIntegrationTest {
         }
 
         mockMvc.perform(delete("/patient/" + samplePatientId)
+                        .header(HttpHeaders.IF_MATCH, etag("/patient/" + samplePatientId))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
@@ -297,6 +777,7 @@ class PatientControllerIntegrationTest {
     @Test
     void deletePatientNotFound() throws Exception {
         mockMvc.perform(delete("/patient/999")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Пациент с ID 999 не найден"));
@@ -336,4 +817,11 @@ class PatientControllerIntegrationTest {
         patient.setInsuranceNumber("9876543210987654");
         return patientService.savePatient(patient);
     }
+
+    /**
+     * Текущий ETag ресурса для заголовка If-Match.
+     */
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
 }
\ No newline at end of file
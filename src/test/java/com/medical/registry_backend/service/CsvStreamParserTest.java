@@ -0,0 +1,67 @@
+package com.medical.registry_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvStreamParserTest {
+
+    @Test
+    void parse_quotedFields_shouldKeepCommasQuotesAndLineBreaks() throws IOException {
+        List<List<String>> rows = parse("""
+                "4","A00.0","Холера, вызванная ""вибрионом""\",,1
+                "5","A00.1","Многострочное
+                наименование",x,
+                """);
+
+        assertEquals(List.of(
+                List.of("4", "A00.0", "Холера, вызванная \"вибрионом\"", "", "1"),
+                List.of("5", "A00.1", "Многострочное\nнаименование", "x", "")), rows);
+    }
+
+    @Test
+    void parse_crlfAndBlankLinesWithoutTrailingNewline_shouldEmitEachRecordOnce() throws IOException {
+        List<List<String>> rows = parse("a,b\r\n\r\nc,\"d\"\r\ne,f");
+
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e", "f")), rows);
+    }
+
+    @Test
+    void parse_shouldReportLineWhereRecordStarts() throws IOException {
+        List<Long> lines = new ArrayList<>();
+
+        long count = CsvStreamParser.parse(new StringReader("\"a\nb\",1\nc,2\n"), row -> lines.add(row.lineNumber()));
+
+        assertEquals(2, count);
+        assertEquals(List.of(1L, 3L), lines);
+    }
+
+    @Test
+    void parse_recordLongerThanReadBuffer_shouldBeJoinedAcrossReads() throws IOException {
+        String longName = "х".repeat(20_000);
+        Reader reader = new StringReader("\"A00.0\",\"" + longName + "\"\n");
+
+        List<List<String>> rows = new ArrayList<>();
+        CsvStreamParser.parse(reader, row -> rows.add(List.of(row.field(0), row.field(1))));
+
+        assertEquals(List.of(List.of("A00.0", longName)), rows);
+    }
+
+    private static List<List<String>> parse(String csv) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        CsvStreamParser.parse(new StringReader(csv), row -> {
+            List<String> fields = new ArrayList<>(row.fieldCount());
+            for (int i = 0; i < row.fieldCount(); i++) {
+                fields.add(row.field(i));
+            }
+            rows.add(fields);
+        });
+        return rows;
+    }
+}
@@ -6,7 +6,9 @@ import com.medical.registry_backend.entity.Patient;
 import com.medical.registry_backend.repository.DiseaseRepository;
 import com.medical.registry_backend.repository.Mkb10Repository;
 import com.medical.registry_backend.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +20,8 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -41,6 +45,9 @@ class DiseaseServiceTest {
     @Mock
     private Mkb10Repository mkb10Repository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private DiseaseServiceImpl diseaseService;
 
@@ -72,7 +79,7 @@ class DiseaseServiceTest {
 
     @Test
     void saveDisease_validDisease_shouldSaveAndReturnDisease() {
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        when(patientRepository.findWithoutDiseasesById(1L)).thenReturn(Optional.of(patient));
         when(mkb10Repository.findById("A00.0")).thenReturn(Optional.of(mkb10));
         when(diseaseRepository.save(any(Disease.class))).thenReturn(disease);
 
@@ -82,28 +89,28 @@ class DiseaseServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("A00.0", result.getMkb10().getCode());
         assertEquals(patient, result.getPatient());
-        verify(patientRepository).findById(1L);
+        verify(patientRepository).findWithoutDiseasesById(1L);
         verify(mkb10Repository).findById("A00.0");
         verify(diseaseRepository).save(any(Disease.class));
     }
 
     @Test
     void saveDisease_patientNotFound_shouldThrowEntityNotFoundException() {
-        when(patientRepository.findById(1L)).thenReturn(Optional.empty());
+        when(patientRepository.findWithoutDiseasesById(1L)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             diseaseService.saveDisease(1L, disease);
         });
 
         assertEquals("Пациент с ID 1 не найден", exception.getMessage());
-        verify(patientRepository).findById(1L);
+        verify(patientRepository).findWithoutDiseasesById(1L);
         verify(mkb10Repository, never()).findById(any());
         verify(diseaseRepository, never()).save(any());
     }
 
     @Test
     void saveDisease_mkb10NotFound_shouldThrowEntityNotFoundException() {
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        when(patientRepository.findWithoutDiseasesById(1L)).thenReturn(Optional.of(patient));
         when(mkb10Repository.findById("A00.0")).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
@@ -111,7 +118,7 @@ class DiseaseServiceTest {
         });
 
         assertEquals("Код МКБ-10 A00.0 не найден", exception.getMessage());
-        verify(patientRepository).findById(1L);
+        verify(patientRepository).findWithoutDiseasesById(1L);
         verify(mkb10Repository).findById("A00.0");
         verify(diseaseRepository, never()).save(any());
     }
@@ -139,117 +146,118 @@ class DiseaseServiceTest {
         expectedDisease.setPrescriptions("Новое лечение");
         expectedDisease.setSickLeaveIssued(false);
 
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(disease));
         when(mkb10Repository.findById("B02.0")).thenReturn(Optional.of(updatedMkb10));
         when(diseaseRepository.save(any(Disease.class))).thenReturn(expectedDisease);
 
-        Disease result = diseaseService.updateDisease(1L, 1L, updatedDisease);
+        Disease result = diseaseService.updateDisease(1L, 1L, updatedDisease, null);
 
         assertNotNull(result);
         assertEquals("B02.0", result.getMkb10().getCode());
         assertEquals(LocalDate.of(2023, 2, 1), result.getStartDate());
         assertEquals("Новое лечение", result.getPrescriptions());
         assertFalse(result.isSickLeaveIssued());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(mkb10Repository).findById("B02.0");
         verify(diseaseRepository).save(any(Disease.class));
     }
 
     @Test
     void updateDisease_diseaseNotFound_shouldThrowEntityNotFoundException() {
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.empty());
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            diseaseService.updateDisease(1L, 1L, disease);
+            diseaseService.updateDisease(1L, 1L, disease, null);
         });
 
         assertEquals("Заболевание с ID 1 не найдено", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(mkb10Repository, never()).findById(any());
         verify(diseaseRepository, never()).save(any());
     }
 
     @Test
     void updateDisease_wrongPatientId_shouldThrowIllegalArgumentException() {
-        disease.getPatient().setId(2L);
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.empty());
+        when(diseaseRepository.existsById(1L)).thenReturn(true);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            diseaseService.updateDisease(1L, 1L, disease);
+            diseaseService.updateDisease(1L, 1L, disease, null);
         });
 
         assertEquals("Заболевание не принадлежит пациенту с ID 1", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(mkb10Repository, never()).findById(any());
         verify(diseaseRepository, never()).save(any());
     }
 
     @Test
     void updateDisease_mkb10NotFound_shouldThrowEntityNotFoundException() {
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(disease));
         when(mkb10Repository.findById("A00.0")).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            diseaseService.updateDisease(1L, 1L, disease);
+            diseaseService.updateDisease(1L, 1L, disease, null);
         });
 
         assertEquals("Код МКБ-10 A00.0 не найден", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(mkb10Repository).findById("A00.0");
         verify(diseaseRepository, never()).save(any());
     }
 
     @Test
     void updateDisease_saveError_shouldThrowRuntimeException() {
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(disease));
         when(mkb10Repository.findById("A00.0")).thenReturn(Optional.of(mkb10));
         when(diseaseRepository.save(any(Disease.class))).thenThrow(new RuntimeException("Database error"));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            diseaseService.updateDisease(1L, 1L, disease);
+            diseaseService.updateDisease(1L, 1L, disease, null);
         });
 
         assertEquals("Ошибка при обновлении заболевания с ID 1", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(mkb10Repository).findById("A00.0");
         verify(diseaseRepository).save(any(Disease.class));
     }
 
     @Test
     void getDiseaseById_validIds_shouldReturnDisease() {
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(disease));
 
         Disease result = diseaseService.getDiseaseById(1L, 1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("A00.0", result.getMkb10().getCode());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
+        verify(diseaseRepository, never()).existsById(any());
     }
 
     @Test
     void getDiseaseById_diseaseNotFound_shouldThrowEntityNotFoundException() {
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.empty());
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             diseaseService.getDiseaseById(1L, 1L);
         });
 
         assertEquals("Заболевание с ID 1 не найдено", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
     }
 
     @Test
     void getDiseaseById_wrongPatientId_shouldThrowIllegalArgumentException() {
-        disease.getPatient().setId(2L);
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.empty());
+        when(diseaseRepository.existsById(1L)).thenReturn(true);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             diseaseService.getDiseaseById(1L, 1L);
         });
 
         assertEquals("Заболевание не принадлежит пациенту с ID 1", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
     }
 
     @Test
@@ -257,28 +265,29 @@ class DiseaseServiceTest {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("startDate"));
         List<Disease> diseases = Collections.singletonList(disease);
         Page<Disease> page = new PageImpl<>(diseases, pageable, diseases.size());
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        when(patientRepository.existsById(1L)).thenReturn(true);
         when(diseaseRepository.findByPatientId(1L, pageable)).thenReturn(page);
 
         Page<Disease> result = diseaseService.getDiseasesByPatientId(1L, pageable);
 
         assertEquals(1, result.getContent().size());
         assertEquals("A00.0", result.getContent().get(0).getMkb10().getCode());
-        verify(patientRepository).findById(1L);
+        verify(patientRepository).existsById(1L);
+        verify(patientRepository, never()).findById(any());
         verify(diseaseRepository).findByPatientId(1L, pageable);
     }
 
     @Test
     void getDiseasesByPatientId_patientNotFound_shouldThrowEntityNotFoundException() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("startDate"));
-        when(patientRepository.findById(1L)).thenReturn(Optional.empty());
+        when(patientRepository.existsById(1L)).thenReturn(false);
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             diseaseService.getDiseasesByPatientId(1L, pageable);
         });
 
         assertEquals("Пациент с ID 1 не найден", exception.getMessage());
-        verify(patientRepository).findById(1L);
+        verify(patientRepository).existsById(1L);
         verify(diseaseRepository, never()).findByPatientId(anyLong(), any());
     }
 
@@ -286,50 +295,63 @@ class DiseaseServiceTest {
     void getDiseasesByPatientId_noDiseases_shouldReturnEmptyPage() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("startDate"));
         Page<Disease> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        when(patientRepository.existsById(1L)).thenReturn(true);
         when(diseaseRepository.findByPatientId(1L, pageable)).thenReturn(emptyPage);
 
         Page<Disease> result = diseaseService.getDiseasesByPatientId(1L, pageable);
 
         assertTrue(result.getContent().isEmpty());
-        verify(patientRepository).findById(1L);
+        verify(patientRepository).existsById(1L);
         verify(diseaseRepository).findByPatientId(1L, pageable);
     }
 
     @Test
     void deleteDisease_validIds_shouldDeleteDisease() {
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(disease));
 
-        diseaseService.deleteDisease(1L, 1L);
+        diseaseService.deleteDisease(1L, 1L, null);
 
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(diseaseRepository).delete(disease);
+        verify(entityManager).lock(patient, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    @Test
+    void deleteDisease_staleVersion_shouldThrowPreconditionFailed() {
+        disease.setVersion(5L);
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(disease));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> diseaseService.deleteDisease(1L, 1L, 4L));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verify(diseaseRepository, never()).delete(any(Disease.class));
     }
 
     @Test
     void deleteDisease_diseaseNotFound_shouldThrowEntityNotFoundException() {
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.empty());
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            diseaseService.deleteDisease(1L, 1L);
+            diseaseService.deleteDisease(1L, 1L, null);
         });
 
         assertEquals("Заболевание с ID 1 не найдено", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(diseaseRepository, never()).delete(any());
     }
 
     @Test
     void deleteDisease_wrongPatientId_shouldThrowIllegalArgumentException() {
-        disease.getPatient().setId(2L);
-        when(diseaseRepository.findById(1L)).thenReturn(Optional.of(disease));
+        when(diseaseRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.empty());
+        when(diseaseRepository.existsById(1L)).thenReturn(true);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            diseaseService.deleteDisease(1L, 1L);
+            diseaseService.deleteDisease(1L, 1L, null);
         });
 
         assertEquals("Заболевание не принадлежит пациенту с ID 1", exception.getMessage());
-        verify(diseaseRepository).findById(1L);
+        verify(diseaseRepository).findByIdAndPatientId(1L, 1L);
         verify(diseaseRepository, never()).delete(any());
     }
 }
\ No newline at end of file
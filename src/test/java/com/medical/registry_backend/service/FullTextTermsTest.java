@@ -0,0 +1,37 @@
+package com.medical.registry_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullTextTermsTest {
+
+    @Test
+    void of_shouldReduceInflectedFormsToOneStem() {
+        assertEquals(List.of("холер"), FullTextTerms.of("Холера"));
+        assertEquals(List.of("холер"), FullTextTerms.of("холеры"));
+        assertEquals(List.of("остр", "инфекц"), FullTextTerms.of("Острая инфекция"));
+        assertEquals(List.of("остр", "инфекц"), FullTextTerms.of("острых инфекций"));
+    }
+
+    @Test
+    void stem_shouldKeepShortWords() {
+        assertEquals("рак", FullTextTerms.stem("рака"));
+        assertEquals("ухо", FullTextTerms.stem("ухо"));
+    }
+
+    @Test
+    void rank_shouldRequireAllQueryStemsAndPreferShorterNames() {
+        Set<String> query = Set.of("холер");
+
+        double exact = FullTextTerms.rank(query, FullTextTerms.of("Холера"));
+        double longer = FullTextTerms.rank(query, FullTextTerms.of("Холера неуточненная"));
+
+        assertEquals(1.0, exact, 1e-9);
+        assertEquals(0.5, longer, 1e-9);
+        assertEquals(0.0, FullTextTerms.rank(Set.of("холер", "грипп"), FullTextTerms.of("Холера")), 1e-9);
+    }
+}
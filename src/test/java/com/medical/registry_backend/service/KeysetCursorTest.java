@@ -0,0 +1,84 @@
+package com.medical.registry_backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    private static final Map<String, Function<String, Object>> SORT_KEYS = Map.of(
+            "lastName", value -> value,
+            "birthDate", LocalDate::parse);
+
+    @Test
+    void of_emptyCursor_shouldStartFromBeginningSortedById() {
+        KeysetCursor cursor = KeysetCursor.of("", Sort.unsorted(), SORT_KEYS);
+
+        assertEquals(Sort.by("id"), cursor.sort());
+        assertTrue(cursor.position().isInitial());
+    }
+
+    @Test
+    void of_emptyCursor_shouldAppendIdInSortDirection() {
+        KeysetCursor cursor = KeysetCursor.of(null, Sort.by(Sort.Direction.DESC, "lastName"), SORT_KEYS);
+
+        assertEquals(Sort.by(Sort.Direction.DESC, "lastName", "id"), cursor.sort());
+    }
+
+    @Test
+    void next_shouldRoundTripSortAndTypedKeys() {
+        KeysetCursor first = KeysetCursor.of("", Sort.by(Sort.Direction.DESC, "birthDate"), SORT_KEYS);
+        String token = first.next(ScrollPosition.forward(Map.of("birthDate", LocalDate.of(1990, 1, 1), "id", 42L)));
+
+        KeysetCursor cursor = KeysetCursor.of(token, Sort.by("lastName"), SORT_KEYS);
+
+        assertEquals(Sort.by(Sort.Direction.DESC, "birthDate", "id"), cursor.sort());
+        KeysetScrollPosition position = (KeysetScrollPosition) cursor.position();
+        assertEquals(LocalDate.of(1990, 1, 1), position.getKeys().get("birthDate"));
+        assertEquals(42L, position.getKeys().get("id"));
+        assertTrue(position.scrollsForward());
+    }
+
+    @Test
+    void next_shouldKeepValuesWithSeparatorsIntact() {
+        KeysetCursor first = KeysetCursor.of("", Sort.by("lastName"), SORT_KEYS);
+        String token = first.next(ScrollPosition.forward(Map.of("lastName", "Римского-Корсакова\nА", "id", 7L)));
+
+        KeysetScrollPosition position = (KeysetScrollPosition) KeysetCursor.of(token, Sort.unsorted(), SORT_KEYS).position();
+
+        assertEquals("Римского-Корсакова\nА", position.getKeys().get("lastName"));
+    }
+
+    @Test
+    void of_unsupportedSort_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> KeysetCursor.of("", Sort.by("middleName"), SORT_KEYS));
+        assertThrows(IllegalArgumentException.class,
+                () -> KeysetCursor.of("", Sort.by("lastName", "birthDate"), SORT_KEYS));
+    }
+
+    @Test
+    void of_tamperedCursor_shouldThrowIllegalArgumentException() {
+        String foreignKey = Base64.getUrlEncoder().encodeToString("insuranceNumber\nASC\n1\n1234".getBytes());
+        String badId = Base64.getUrlEncoder().encodeToString("id\nASC\nabc".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of("не base64", Sort.unsorted(), SORT_KEYS));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of(foreignKey, Sort.unsorted(), SORT_KEYS));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of(badId, Sort.unsorted(), SORT_KEYS));
+    }
+
+    @Test
+    void limit_outOfRange_shouldThrowIllegalArgumentException() {
+        assertEquals(10, KeysetCursor.limit(10).max());
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.limit(0));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.limit(KeysetCursor.MAX_PAGE_SIZE + 1));
+    }
+}
@@ -0,0 +1,75 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mkb10BinarySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndOpen_shouldReturnEveryEntrySortedByCode() throws IOException {
+        Path file = dir.resolve("mkb10.bin");
+        Mkb10BinarySnapshot.write(file, List.of(
+                mkb10("J06.9", "Острая инфекция верхних дыхательных путей неуточненная"),
+                mkb10("A00.0", "Холера, вызванная холерным вибрионом 01, биовар cholerae"),
+                mkb10("B02.0", "Энцефалит, вызванный вирусом опоясывающего лишая")));
+
+        Mkb10BinarySnapshot snapshot = Mkb10BinarySnapshot.open(file);
+
+        assertEquals(3, snapshot.size());
+        List<Mkb10> entries = snapshot.toList();
+        assertEquals(List.of("A00.0", "B02.0", "J06.9"), entries.stream().map(Mkb10::getCode).toList());
+        assertEquals("Холера, вызванная холерным вибрионом 01, биовар cholerae", entries.get(0).getName());
+        assertEquals("Энцефалит, вызванный вирусом опоясывающего лишая", entries.get(1).getName());
+    }
+
+    @Test
+    void write_shouldReplaceFileWithoutInvalidatingMappedSnapshot() throws IOException {
+        Path file = dir.resolve("mkb10.bin");
+        Mkb10BinarySnapshot.write(file, List.of(mkb10("A00.0", "Холера")));
+        Mkb10BinarySnapshot old = Mkb10BinarySnapshot.open(file);
+
+        Mkb10BinarySnapshot.write(file, List.of(mkb10("B02.0", "Грипп")));
+
+        assertEquals("Холера", old.toList().get(0).getName());
+        List<Mkb10> replaced = Mkb10BinarySnapshot.open(file).toList();
+        assertEquals(1, replaced.size());
+        assertEquals("B02.0", replaced.get(0).getCode());
+        assertEquals("Грипп", replaced.get(0).getName());
+    }
+
+    @Test
+    void writeAndOpen_emptyDictionary_shouldReturnNoEntries() throws IOException {
+        Path file = dir.resolve("mkb10.bin");
+        Mkb10BinarySnapshot.write(file, List.of());
+
+        Mkb10BinarySnapshot snapshot = Mkb10BinarySnapshot.open(file);
+
+        assertEquals(0, snapshot.size());
+        assertTrue(snapshot.toList().isEmpty());
+    }
+
+    @Test
+    void open_foreignFile_shouldBeRejected() throws IOException {
+        Path file = Files.writeString(dir.resolve("mkb10.bin"), "\"4\",\"0101A000\",\"A00.0\",\"Холера\"");
+
+        assertThrows(IOException.class, () -> Mkb10BinarySnapshot.open(file));
+    }
+
+    private static Mkb10 mkb10(String code, String name) {
+        Mkb10 mkb10 = new Mkb10();
+        mkb10.setCode(code);
+        mkb10.setName(name);
+        return mkb10;
+    }
+}
@@ -0,0 +1,75 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class Mkb10BulkLoaderIntegrationTest {
+
+    @Autowired
+    private Mkb10BulkLoader mkb10BulkLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mkb10BulkLoader.clearStaging();
+    }
+
+    @Test
+    void loadStaging_moreRowsThanBatch_shouldLoadEveryRowOnce() {
+        List<Mkb10> rows = new ArrayList<>();
+        for (int i = 0; i < Mkb10BulkLoader.BATCH_SIZE + 5; i++) {
+            String code = (char) ('A' + i / 1000) + String.format("%02d.%d", i / 10 % 100, i % 10);
+            rows.add(mkb10(code, "Запись " + i));
+        }
+        rows.add(mkb10(rows.get(0).getCode(), "Повтор первой записи"));
+
+        Integer loaded = transactionTemplate.execute(status -> mkb10BulkLoader.loadStaging(Mkb10RowSource.of(rows)));
+
+        assertEquals(Mkb10BulkLoader.BATCH_SIZE + 5, loaded);
+        assertEquals(loaded, stagingCount());
+        assertEquals("Запись 0", jdbcTemplate.queryForObject(
+                "SELECT name FROM " + Mkb10BulkLoader.STAGING_TABLE + " WHERE code = ?", String.class, rows.get(0).getCode()));
+    }
+
+    @Test
+    void loadStaging_shouldReplacePreviousStagingContent() {
+        transactionTemplate.executeWithoutResult(status ->
+                mkb10BulkLoader.loadStaging(Mkb10RowSource.of(List.of(mkb10("A00.0", "Холера"), mkb10("A00.1", "Холера эльтор")))));
+
+        transactionTemplate.executeWithoutResult(status ->
+                mkb10BulkLoader.loadStaging(Mkb10RowSource.of(List.of(mkb10("B02.0", "Грипп")))));
+
+        assertEquals(1, stagingCount());
+        mkb10BulkLoader.clearStaging();
+        assertEquals(0, stagingCount());
+    }
+
+    private int stagingCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + Mkb10BulkLoader.STAGING_TABLE, Integer.class);
+    }
+
+    private static Mkb10 mkb10(String code, String name) {
+        Mkb10 mkb10 = new Mkb10();
+        mkb10.setCode(code);
+        mkb10.setName(name);
+        return mkb10;
+    }
+}
@@ -0,0 +1,191 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.dto.Mkb10UpdateResult;
+import com.medical.registry_backend.entity.Disease;
+import com.medical.registry_backend.entity.Mkb10;
+import com.medical.registry_backend.entity.Mkb10Node;
+import com.medical.registry_backend.entity.Mkb10NodeType;
+import com.medical.registry_backend.entity.Patient;
+import com.medical.registry_backend.repository.DiseaseRepository;
+import com.medical.registry_backend.repository.Mkb10Repository;
+import com.medical.registry_backend.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class Mkb10DictionaryUpdaterIntegrationTest {
+
+    @Autowired
+    private Mkb10DictionaryUpdater mkb10DictionaryUpdater;
+
+    @Autowired
+    private Mkb10Repository mkb10Repository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private Mkb10HierarchyLoader mkb10HierarchyLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        diseaseRepository.deleteAll();
+        patientRepository.deleteAll();
+        mkb10Repository.deleteAll();
+        mkb10HierarchyLoader.replace(List.of(node(1L, null, "01", null, "Старая глава", Mkb10NodeType.CHAPTER)));
+
+        mkb10Repository.saveAll(List.of(
+                mkb10("A00.0", "Холера"),
+                mkb10("A00.1", "Старое наименование"),
+                mkb10("Y00.0", "Исключённый код"),
+                mkb10("Z99.9", "Используемый код")));
+
+        Patient patient = new Patient();
+        patient.setLastName("Иванов");
+        patient.setFirstName("Иван");
+        patient.setGender("М");
+        patient.setBirthDate(LocalDate.of(1990, 1, 1));
+        patient.setInsuranceNumber("1234567890123456");
+        patientRepository.save(patient);
+
+        Disease disease = new Disease();
+        disease.setPatient(patient);
+        disease.setMkb10(mkb10Repository.findById("Z99.9").orElseThrow());
+        disease.setStartDate(LocalDate.now());
+        disease.setPrescriptions("Наблюдение");
+        disease.setSickLeaveIssued(false);
+        diseaseRepository.save(disease);
+    }
+
+    @Test
+    void apply_shouldWriteOnlyTheDifference() {
+        Mkb10UpdateResult result = mkb10DictionaryUpdater.apply(Mkb10RowSource.of(List.of(
+                mkb10("A00.0", "Холера"),
+                mkb10("A00.1", "Новое наименование"),
+                mkb10("B02.0", "Грипп"))));
+
+        assertEquals(new Mkb10UpdateResult(1, 1, 1, 1, 1), result);
+        assertEquals("Новое наименование", mkb10Repository.findById("A00.1").orElseThrow().getName());
+        assertTrue(mkb10Repository.existsById("B02.0"));
+        assertFalse(mkb10Repository.existsById("Y00.0"));
+        assertTrue(mkb10Repository.existsById("Z99.9"));
+    }
+
+    @Test
+    void apply_largeSource_shouldMergeAllBatchesAndClearStaging() {
+        List<Mkb10> source = new ArrayList<>(List.of(mkb10("A00.0", "Холера"), mkb10("Z99.9", "Используемый код")));
+        for (int i = 0; i < Mkb10BulkLoader.BATCH_SIZE * 2; i++) {
+            source.add(mkb10((char) ('B' + i / 1000) + String.format("%02d.%d", i / 10 % 100, i % 10), "Запись " + i));
+        }
+
+        Mkb10UpdateResult result = mkb10DictionaryUpdater.apply(Mkb10RowSource.of(source));
+
+        assertEquals(new Mkb10UpdateResult(Mkb10BulkLoader.BATCH_SIZE * 2, 0, 2, 2, 0), result);
+        assertEquals(Mkb10BulkLoader.BATCH_SIZE * 2 + 2, mkb10Repository.count());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + Mkb10BulkLoader.STAGING_TABLE, Integer.class));
+    }
+
+    @Test
+    void apply_sameSource_shouldReportNoChanges() {
+        List<Mkb10> source = List.of(
+                mkb10("A00.0", "Холера"),
+                mkb10("A00.1", "Старое наименование"),
+                mkb10("Y00.0", "Исключённый код"),
+                mkb10("Z99.9", "Используемый код"));
+
+        Mkb10UpdateResult result = mkb10DictionaryUpdater.apply(Mkb10RowSource.of(source));
+
+        assertFalse(result.hasChanges());
+        assertEquals(4, result.unchanged());
+    }
+
+    @Test
+    void apply_sourceFailsMidStream_shouldKeepCurrentDictionary() {
+        Mkb10RowSource failing = sink -> {
+            sink.accept(mkb10("B02.0", "Грипп"));
+            throw new IOException("Connection reset");
+        };
+
+        assertThrows(UncheckedIOException.class, () -> mkb10DictionaryUpdater.apply(failing));
+
+        assertFalse(mkb10Repository.existsById("B02.0"));
+        assertEquals(4, mkb10Repository.count());
+    }
+
+    @Test
+    void apply_withHierarchy_shouldReplaceNodesInSameTransactionSkippingDuplicates() {
+        Mkb10RowSource source = sink -> {
+            Mkb10HierarchyLoader.Writer hierarchy = mkb10HierarchyLoader.open();
+            hierarchy.accept(node(3L, null, "0101A00", "A00", "Холера", Mkb10NodeType.CATEGORY));
+            for (int i = 0; i < Mkb10HierarchyLoader.BATCH_SIZE; i++) {
+                hierarchy.accept(node(10L + i, 3L, String.format("0101A0%04d", i), null, "Узел " + i,
+                        Mkb10NodeType.SUBCATEGORY));
+            }
+            hierarchy.accept(node(3L, null, "0101B00", "B00", "Повтор id", Mkb10NodeType.CATEGORY));
+            hierarchy.accept(node(4L, null, "0101A00", "A00", "Повтор пути", Mkb10NodeType.CATEGORY));
+            assertEquals(Mkb10HierarchyLoader.BATCH_SIZE + 1, hierarchy.finish());
+            sink.accept(mkb10("A00.0", "Холера"));
+        };
+
+        mkb10DictionaryUpdater.apply(source);
+
+        assertEquals(Mkb10HierarchyLoader.BATCH_SIZE + 1, nodeCount());
+        assertEquals("Холера", jdbcTemplate.queryForObject("SELECT name FROM mkb10_node WHERE id = 3", String.class));
+    }
+
+    @Test
+    void apply_sourceFailsAfterHierarchy_shouldKeepCurrentHierarchy() {
+        Mkb10RowSource failing = sink -> {
+            Mkb10HierarchyLoader.Writer hierarchy = mkb10HierarchyLoader.open();
+            hierarchy.accept(node(3L, null, "0101A00", "A00", "Холера", Mkb10NodeType.CATEGORY));
+            hierarchy.finish();
+            throw new IOException("Connection reset");
+        };
+
+        assertThrows(UncheckedIOException.class, () -> mkb10DictionaryUpdater.apply(failing));
+
+        assertEquals(1, nodeCount());
+        assertEquals("Старая глава", jdbcTemplate.queryForObject("SELECT name FROM mkb10_node WHERE id = 1", String.class));
+    }
+
+    private int nodeCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mkb10_node", Integer.class);
+    }
+
+    private static Mkb10Node node(Long id, Long parentId, String path, String code, String name, Mkb10NodeType type) {
+        Mkb10Node node = new Mkb10Node();
+        node.setId(id);
+        node.setParentId(parentId);
+        node.setPath(path);
+        node.setCode(code);
+        node.setName(name);
+        node.setType(type);
+        return node;
+    }
+
+    private static Mkb10 mkb10(String code, String name) {
+        Mkb10 mkb10 = new Mkb10();
+        mkb10.setCode(code);
+        mkb10.setName(name);
+        return mkb10;
+    }
+}
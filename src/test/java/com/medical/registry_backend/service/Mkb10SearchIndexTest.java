@@ -0,0 +1,68 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mkb10SearchIndexTest {
+
+    private Mkb10SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = Mkb10SearchIndex.build(List.of(
+                mkb10("J06.9", "Острая инфекция верхних дыхательных путей неуточненная"),
+                mkb10("A00.0", "Холера, вызванная холерным вибрионом 01, биовар cholerae"),
+                mkb10("A00.1", "Холера, вызванная холерным вибрионом 01, биовар eltor"),
+                mkb10("J06.0", "Острый ларингофарингит")));
+    }
+
+    @Test
+    void search_substringOfName_shouldMatchIgnoringCase() {
+        List<Mkb10> result = index.search("ХОЛЕРНЫМ");
+
+        assertEquals(List.of("A00.0", "A00.1"), codes(result));
+    }
+
+    @Test
+    void search_partOfCode_shouldReturnMatchesOrderedByCode() {
+        List<Mkb10> result = index.search("j06");
+
+        assertEquals(List.of("J06.0", "J06.9"), codes(result));
+    }
+
+    @Test
+    void search_shortQuery_shouldUseShorterGrams() {
+        assertEquals(List.of("A00.1"), codes(index.search("lt")));
+        assertEquals(4, index.search("0").size());
+    }
+
+    @Test
+    void search_gramsPresentButNotContiguous_shouldNotMatch() {
+        assertTrue(index.search("холерныйвибрион").isEmpty());
+        assertTrue(index.search("eltorx").isEmpty());
+    }
+
+    @Test
+    void build_emptyDictionary_shouldReturnEmptyIndex() {
+        Mkb10SearchIndex empty = Mkb10SearchIndex.build(List.of());
+
+        assertTrue(empty.isEmpty());
+        assertTrue(empty.search("холера").isEmpty());
+    }
+
+    private static Mkb10 mkb10(String code, String name) {
+        Mkb10 mkb10 = new Mkb10();
+        mkb10.setCode(code);
+        mkb10.setName(name);
+        return mkb10;
+    }
+
+    private static List<String> codes(List<Mkb10> mkb10List) {
+        return mkb10List.stream().map(Mkb10::getCode).toList();
+    }
+}
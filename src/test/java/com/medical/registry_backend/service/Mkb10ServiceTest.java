@@ -1,25 +1,44 @@
 package com.medical.registry_backend.service;
 
+import com.medical.registry_backend.config.Mkb10Properties;
+import com.medical.registry_backend.dto.Mkb10DictionaryStatus;
+import com.medical.registry_backend.dto.Mkb10Match;
+import com.medical.registry_backend.dto.Mkb10RefreshJob;
+import com.medical.registry_backend.dto.Mkb10ResolveResult;
+import com.medical.registry_backend.dto.Mkb10UpdateResult;
 import com.medical.registry_backend.entity.Mkb10;
+import com.medical.registry_backend.entity.Mkb10Node;
+import com.medical.registry_backend.entity.Mkb10NodeType;
 import com.medical.registry_backend.repository.Mkb10Repository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
-import java.io.BufferedReader;
-import java.io.StringReader;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,6 +51,30 @@ class Mkb10ServiceTest {
     @Mock
     private Mkb10Repository mkb10Repository;
 
+    @Mock
+    private Mkb10DictionaryUpdater mkb10DictionaryUpdater;
+
+    @Mock
+    private Mkb10HierarchyLoader mkb10HierarchyLoader;
+
+    @Mock
+    private Mkb10HierarchyLoader.Writer hierarchyWriter;
+
+    @Mock
+    private Mkb10SourceFetcher mkb10SourceFetcher;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private TaskExecutor taskExecutor;
+
+    @Spy
+    private Mkb10Properties mkb10Properties = new Mkb10Properties();
+
+    @TempDir
+    Path tempDir;
+
     @InjectMocks
     private Mkb10ServiceImpl mkb10Service;
 
@@ -40,6 +83,7 @@ class Mkb10ServiceTest {
 
     @BeforeEach
     void setUp() {
+        mkb10Properties.setSnapshotDir(tempDir);
         mkb10 = new Mkb10();
         mkb10.setCode("A00.0");
         mkb10.setName("Холера");
@@ -49,31 +93,80 @@ class Mkb10ServiceTest {
     }
 
     @Test
-    void getMkb10ByCode_shouldReturnMkb10FromRepository() {
-        when(mkb10Repository.findById("A00.0")).thenReturn(Optional.of(mkb10));
+    void getMkb10ByCode_shouldReturnMkb10FromDictionary() {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
 
         Mkb10 result = mkb10Service.getMkb10ByCode("A00.0");
 
         assertNotNull(result);
         assertEquals("A00.0", result.getCode());
         assertEquals("Холера", result.getName());
-        verify(mkb10Repository).findById("A00.0");
+        assertSame(result, mkb10Service.getMkb10ByCode("A00.0"));
+        verify(mkb10Repository, never()).findById(any());
+    }
+
+    @Test
+    void getMkb10ByCode_notFound_shouldReturnNullWithoutDatabase() {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+
+        assertNull(mkb10Service.getMkb10ByCode("Z99.9"));
+        assertNull(mkb10Service.getMkb10ByCode("Z99.9"));
+        verify(mkb10Repository, never()).findById(any());
+    }
+
+    @Test
+    void resolveMkb10Codes_shouldSplitFoundAndMissingPreservingOrder() {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+
+        Mkb10ResolveResult result = mkb10Service.resolveMkb10Codes(
+                Arrays.asList("B02.0", " A00.0 ", "Z99.9", "B02.0", "", null));
+
+        assertEquals(List.of("B02.0", "A00.0"), codes(result.found()));
+        assertEquals(List.of("Z99.9"), result.missing());
+        verify(mkb10Repository, never()).findById(any());
+    }
+
+    @Test
+    void getMkb10ByCode_beforeLoad_shouldReturnNull() {
+        assertNull(mkb10Service.getMkb10ByCode("A00.0"));
+        verifyNoInteractions(mkb10Repository);
     }
 
     @Test
-    void getMkb10ByCode_notFound_shouldReturnNull() {
-        when(mkb10Repository.findById("Z99.9")).thenReturn(Optional.empty());
+    void reloadDictionary_shouldPublishNewSnapshotWithoutAffectingPreviousReaders() {
+        when(mkb10Repository.findAll()).thenReturn(List.of(mkb10));
+        mkb10Service.reloadDictionary();
+        List<Mkb10> before = mkb10Service.getAllMkb10();
 
-        Mkb10 result = mkb10Service.getMkb10ByCode("Z99.9");
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
 
-        assertNull(result);
-        verify(mkb10Repository).findById("Z99.9");
+        assertEquals(1, before.size());
+        assertEquals(2, mkb10Service.getAllMkb10().size());
+        assertEquals("Грипп", mkb10Service.getMkb10ByCode("B02.0").getName());
     }
 
     @Test
-    void getAllMkb10_shouldReturnAllRecords() {
-        List<Mkb10> mkb10List = Arrays.asList(mkb10, mkb10_2);
-        when(mkb10Repository.findAll()).thenReturn(mkb10List);
+    void openBinarySnapshot_shouldPublishDictionaryWrittenByPreviousRun() {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+        Mkb10ServiceImpl restarted = new Mkb10ServiceImpl(mkb10Repository, mkb10DictionaryUpdater,
+                mkb10HierarchyLoader, mkb10SourceFetcher, mkb10Properties, dataSource, taskExecutor);
+
+        restarted.openBinarySnapshot();
+
+        assertEquals("Грипп", restarted.getMkb10ByCode("B02.0").getName());
+        assertEquals(2, restarted.getDictionaryStatus().size());
+        verify(mkb10Repository, times(1)).findAll();
+    }
+
+    @Test
+    void getAllMkb10_shouldReturnAllRecordsOrderedByCode() {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10_2, mkb10));
+        mkb10Service.reloadDictionary();
 
         List<Mkb10> result = mkb10Service.getAllMkb10();
 
@@ -82,25 +175,24 @@ class Mkb10ServiceTest {
         assertEquals("Холера", result.get(0).getName());
         assertEquals("B02.0", result.get(1).getCode());
         assertEquals("Грипп", result.get(1).getName());
-        verify(mkb10Repository).findAll();
+        verify(mkb10Repository, times(1)).findAll();
     }
 
     @Test
     void getAllMkb10_emptyList_shouldReturnEmptyList() {
         when(mkb10Repository.findAll()).thenReturn(Collections.emptyList());
+        mkb10Service.reloadDictionary();
 
         List<Mkb10> result = mkb10Service.getAllMkb10();
 
         assertTrue(result.isEmpty());
-        verify(mkb10Repository).findAll();
     }
 
     @Test
     void getAllMkb10_pageable_shouldReturnPagedRecords() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("code"));
-        List<Mkb10> mkb10List = Arrays.asList(mkb10, mkb10_2);
-        Page<Mkb10> page = new PageImpl<>(mkb10List, pageable, mkb10List.size());
-        when(mkb10Repository.findAll(pageable)).thenReturn(page);
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
 
         Page<Mkb10> result = mkb10Service.getAllMkb10(pageable);
 
@@ -109,49 +201,73 @@ class Mkb10ServiceTest {
         assertEquals("Холера", result.getContent().get(0).getName());
         assertEquals("B02.0", result.getContent().get(1).getCode());
         assertEquals("Грипп", result.getContent().get(1).getName());
-        verify(mkb10Repository).findAll(pageable);
+        verify(mkb10Repository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getAllMkb10_pageableSortedByNameDesc_shouldSortInMemory() {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+
+        Page<Mkb10> result = mkb10Service.getAllMkb10(PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "name")));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals("B02.0", result.getContent().get(0).getCode());
     }
 
     @Test
     void searchMkb10ByCodeOrName_emptySearch_shouldReturnAllRecords() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("code"));
-        List<Mkb10> mkb10List = Arrays.asList(mkb10, mkb10_2);
-        Page<Mkb10> page = new PageImpl<>(mkb10List, pageable, mkb10List.size());
-        when(mkb10Repository.findAll(pageable)).thenReturn(page);
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
 
         Page<Mkb10> result = mkb10Service.searchMkb10ByCodeOrName("", pageable);
 
         assertEquals(2, result.getContent().size());
         assertEquals("A00.0", result.getContent().get(0).getCode());
         assertEquals("Холера", result.getContent().get(0).getName());
-        verify(mkb10Repository).findAll(pageable);
     }
 
     @Test
-    void searchMkb10ByCodeOrName_withSearchQuery_shouldReturnFilteredRecords() {
+    void searchMkb10ByCodeOrName_withSearchQuery_shouldReturnFilteredRecordsFromIndex() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("code"));
-        List<Mkb10> mkb10List = Collections.singletonList(mkb10);
-        Page<Mkb10> page = new PageImpl<>(mkb10List, pageable, mkb10List.size());
-        when(mkb10Repository.findByCodeOrNameContainingIgnoreCase("Холера", pageable)).thenReturn(page);
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
 
-        Page<Mkb10> result = mkb10Service.searchMkb10ByCodeOrName("Холера", pageable);
+        Page<Mkb10> result = mkb10Service.searchMkb10ByCodeOrName("холер", pageable);
 
-        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
         assertEquals("A00.0", result.getContent().get(0).getCode());
         assertEquals("Холера", result.getContent().get(0).getName());
-        verify(mkb10Repository).findByCodeOrNameContainingIgnoreCase("Холера", pageable);
+        verify(mkb10Repository).findAll();
+        verifyNoMoreInteractions(mkb10Repository);
+    }
+
+    @Test
+    void searchMkb10ByCodeOrName_byCode_shouldPageAndSortResults() {
+        Mkb10 mkb10_3 = new Mkb10();
+        mkb10_3.setCode("A00.1");
+        mkb10_3.setName("Холера Эль-Тор");
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10_2, mkb10_3, mkb10));
+        mkb10Service.reloadDictionary();
+
+        Page<Mkb10> result = mkb10Service.searchMkb10ByCodeOrName("a00", PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "code")));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertEquals("A00.1", result.getContent().get(0).getCode());
     }
 
     @Test
     void searchMkb10ByCodeOrName_noResults_shouldReturnEmptyPage() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("code"));
-        Page<Mkb10> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
-        when(mkb10Repository.findByCodeOrNameContainingIgnoreCase("Неизвестно", pageable)).thenReturn(emptyPage);
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
 
         Page<Mkb10> result = mkb10Service.searchMkb10ByCodeOrName("Неизвестно", pageable);
 
         assertTrue(result.getContent().isEmpty());
-        verify(mkb10Repository).findByCodeOrNameContainingIgnoreCase("Неизвестно", pageable);
+        assertEquals(0, result.getTotalElements());
     }
 
     @Test
@@ -161,31 +277,94 @@ class Mkb10ServiceTest {
                 ,,"A00.0","Холера"
                 ,,"B02.0","Грипп"
                 """;
-        BufferedReader reader = new BufferedReader(new StringReader(csvContent));
-        mkb10Service = spy(mkb10Service);
-        doReturn(reader).when(mkb10Service).getCsvReader();
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        List<Mkb10> applied = stubUpdater(new Mkb10UpdateResult(2, 0, 0, 0, 0));
+
+        mkb10Service.updateMkb10Data();
+
+        assertEquals(List.of("A00.0", "B02.0"), codes(applied));
+        assertEquals(List.of("Холера", "Грипп"), applied.stream().map(Mkb10::getName).toList());
+        verify(mkb10SourceFetcher).markApplied(any());
+    }
+
+    @Test
+    void updateMkb10Data_alreadyAppliedSource_shouldSkipParsing() throws Exception {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+        when(mkb10SourceFetcher.fetch()).thenReturn(new Mkb10SourceFetcher.Result(
+                Mkb10SourceFetcher.Status.NOT_MODIFIED, tempDir.resolve("mkb10.csv"), "sha", true));
+        when(mkb10HierarchyLoader.isEmpty()).thenReturn(false);
+
+        mkb10Service.updateMkb10Data();
+
+        verifyNoInteractions(mkb10DictionaryUpdater);
+        Mkb10DictionaryStatus status = mkb10Service.getDictionaryStatus();
+        assertFalse(status.stale());
+        assertNull(status.lastError());
+    }
+
+    @Test
+    void updateMkb10Data_alreadyAppliedSourceWithoutHierarchy_shouldParseAgain() throws Exception {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+        Path file = Files.writeString(tempDir.resolve("mkb10.csv"), """
+                "3","0101A00","A00","Холера","2",,1,
+                "4","0101A000","A00.0","Холера, вызванная холерным вибрионом 01, биовар cholerae","3",,1,
+                """);
+        when(mkb10SourceFetcher.fetch()).thenReturn(new Mkb10SourceFetcher.Result(
+                Mkb10SourceFetcher.Status.NOT_MODIFIED, file, "sha", true));
+        when(mkb10HierarchyLoader.isEmpty()).thenReturn(true);
+        stubUpdater(new Mkb10UpdateResult(0, 0, 0, 1, 0));
+
+        mkb10Service.updateMkb10Data();
+
+        verify(hierarchyWriter, times(2)).accept(any());
+        verify(hierarchyWriter).finish();
+    }
+
+    @Test
+    void updateMkb10Data_sourceUnavailable_shouldKeepLoadedDictionary() throws Exception {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+        when(mkb10SourceFetcher.fetch()).thenReturn(new Mkb10SourceFetcher.Result(
+                Mkb10SourceFetcher.Status.FALLBACK, tempDir.resolve("mkb10.csv"), "sha", false));
+
+        mkb10Service.updateMkb10Data();
+
+        verifyNoInteractions(mkb10DictionaryUpdater);
+        assertNotNull(mkb10Service.getDictionaryStatus().lastError());
+        assertEquals(2, mkb10Service.getDictionaryStatus().size());
+    }
+
+    @Test
+    void updateMkb10Data_unchangedSource_shouldKeepIndexes() throws Exception {
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(mkb10, mkb10_2));
+        mkb10Service.reloadDictionary();
+        String csvContent = """
+                "id","parent_code","code","name"
+                ,,"A00.0","Холера"
+                ,,"B02.0","Грипп"
+                """;
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        stubUpdater(new Mkb10UpdateResult(0, 0, 0, 2, 0));
 
         mkb10Service.updateMkb10Data();
 
-        verify(mkb10Repository).deleteAll();
-        verify(mkb10Repository).saveAll(argThat((List<Mkb10> list) -> {
-            if (list.size() != 2) return false;
-            return list.stream().anyMatch(m -> m.getCode().equals("A00.0") && m.getName().equals("Холера")) &&
-                    list.stream().anyMatch(m -> m.getCode().equals("B02.0") && m.getName().equals("Грипп"));
-        }));
+        verify(mkb10Repository, times(1)).findAll();
+        assertEquals(1, mkb10Service.searchMkb10ByCodeOrName("грипп", PageRequest.of(0, 10)).getTotalElements());
     }
 
     @Test
     void updateMkb10Data_emptyCsv_shouldNotUpdateRepository() throws Exception {
         String csvContent = "\"id\",\"parent_code\",\"code\",\"name\"\n";
-        BufferedReader reader = new BufferedReader(new StringReader(csvContent));
-        mkb10Service = spy(mkb10Service);
-        doReturn(reader).when(mkb10Service).getCsvReader();
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        List<Mkb10> applied = stubUpdater(new Mkb10UpdateResult(0, 0, 0, 0, 0));
 
         mkb10Service.updateMkb10Data();
 
-        verify(mkb10Repository, never()).deleteAll();
-        verify(mkb10Repository, never()).saveAll(any());
+        assertTrue(applied.isEmpty());
+        verifyNoInteractions(mkb10Repository);
+        assertNotNull(mkb10Service.getDictionaryStatus().lastError());
     }
 
     @Test
@@ -196,28 +375,256 @@ class Mkb10ServiceTest {
                 ,,"Invalid",""
                 ,,"B02.0","Грипп"
                 """;
-        BufferedReader reader = new BufferedReader(new StringReader(csvContent));
-        mkb10Service = spy(mkb10Service);
-        doReturn(reader).when(mkb10Service).getCsvReader();
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        List<Mkb10> applied = stubUpdater(new Mkb10UpdateResult(2, 0, 0, 0, 0));
+
+        mkb10Service.updateMkb10Data();
+
+        assertEquals(List.of("A00.0", "B02.0"), codes(applied));
+        assertEquals(List.of("Холера", "Грипп"), applied.stream().map(Mkb10::getName).toList());
+    }
+
+    @Test
+    void updateMkb10Data_quotedCommasAndQuotes_shouldKeepWholeName() throws Exception {
+        String csvContent = """
+                "4","0101A000","A00.0","Холера, вызванная холерным вибрионом 01, биовар cholerae","3",,1,
+                "6","0101A000","A00.9","Холера ""неуточненная""\","3",,1,
+                """;
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        List<Mkb10> applied = stubUpdater(new Mkb10UpdateResult(2, 0, 0, 0, 0));
+
+        mkb10Service.updateMkb10Data();
+
+        assertEquals(List.of("A00.0", "A00.9"), codes(applied));
+        assertEquals("Холера, вызванная холерным вибрионом 01, биовар cholerae", applied.get(0).getName());
+        assertEquals("Холера \"неуточненная\"", applied.get(1).getName());
+    }
+
+    @Test
+    void updateMkb10Data_shouldKeepWholeHierarchy() throws Exception {
+        String csvContent = """
+                "1","01",,"НЕКОТОРЫЕ ИНФЕКЦИОННЫЕ И ПАРАЗИТАРНЫЕ БОЛЕЗНИ (A00-B99)",,,1,
+                "2","0101",,"КИШЕЧНЫЕ ИНФЕКЦИИ (A00-A09)","1",,1,
+                "3","0101A00","A00","Холера","2",,1,
+                "4","0101A000","A00.0","Холера, вызванная холерным вибрионом 01, биовар cholerae","3",,1,
+                """;
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        List<Mkb10> applied = stubUpdater(new Mkb10UpdateResult(1, 0, 0, 0, 0));
 
         mkb10Service.updateMkb10Data();
 
-        verify(mkb10Repository).deleteAll();
-        verify(mkb10Repository).saveAll(argThat((List<Mkb10> list) -> {
-            if (list.size() != 2) return false;
-            return list.stream().anyMatch(m -> m.getCode().equals("A00.0") && m.getName().equals("Холера")) &&
-                    list.stream().anyMatch(m -> m.getCode().equals("B02.0") && m.getName().equals("Грипп"));
-        }));
+        assertEquals(List.of("A00.0"), codes(applied));
+        ArgumentCaptor<Mkb10Node> captor = ArgumentCaptor.forClass(Mkb10Node.class);
+        verify(hierarchyWriter, times(4)).accept(captor.capture());
+        verify(hierarchyWriter).finish();
+        List<Mkb10Node> nodes = captor.getAllValues();
+        assertEquals(List.of(Mkb10NodeType.CHAPTER, Mkb10NodeType.BLOCK, Mkb10NodeType.CATEGORY, Mkb10NodeType.SUBCATEGORY),
+                nodes.stream().map(Mkb10Node::getType).toList());
+        assertNull(nodes.get(0).getParentId());
+        assertNull(nodes.get(1).getCode());
+        assertEquals(2L, nodes.get(2).getParentId());
+        assertEquals("0101A000", nodes.get(3).getPath());
     }
 
     @Test
     void updateMkb10Data_exceptionInParsing_shouldNotUpdateRepository() throws Exception {
-        mkb10Service = spy(mkb10Service);
-        doThrow(new RuntimeException("IO Error")).when(mkb10Service).getCsvReader();
+        when(mkb10SourceFetcher.fetch()).thenThrow(new IOException("IO Error"));
+
+        mkb10Service.updateMkb10Data();
+
+        verifyNoInteractions(mkb10DictionaryUpdater, mkb10Repository);
+        Mkb10DictionaryStatus status = mkb10Service.getDictionaryStatus();
+        assertTrue(status.stale());
+        assertNull(status.lastSuccessAt());
+        assertEquals("IO Error", status.lastError());
+    }
+
+    @Test
+    void startMkb10Refresh_shouldRunInBackgroundAndReportRowCounts() throws Exception {
+        String csvContent = """
+                "4","0101A000","A00.0","Холера","3",,1,
+                "5","0101A001","A00.1","Холера эльтор","3",,1,
+                """;
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        stubUpdater(new Mkb10UpdateResult(2, 0, 0, 0, 0));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        Mkb10RefreshJob started = mkb10Service.startMkb10Refresh();
+
+        assertEquals(Mkb10RefreshJob.State.RUNNING, started.state());
+        verify(taskExecutor).execute(task.capture());
+        task.getValue().run();
+        Mkb10RefreshJob finished = mkb10Service.getMkb10RefreshJob(started.id());
+        assertEquals(Mkb10RefreshJob.State.SUCCEEDED, finished.state());
+        assertEquals(2, finished.parsedRows());
+        assertEquals(2, finished.result().inserted());
+        assertNotNull(finished.finishedAt());
+    }
+
+    @Test
+    void startMkb10Refresh_whileRefreshRunning_shouldJoinIt() throws Exception {
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched("\"4\",\"0101A000\",\"A00.0\",\"Холера\",\"3\",,1,\n"));
+        stubUpdater(new Mkb10UpdateResult(1, 0, 0, 0, 0));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        Mkb10RefreshJob first = mkb10Service.startMkb10Refresh();
+        Mkb10RefreshJob second = mkb10Service.startMkb10Refresh();
+
+        assertEquals(first.id(), second.id());
+        assertEquals(1, second.joinedRequests());
+        verify(taskExecutor, times(1)).execute(task.capture());
+        task.getValue().run();
+        verify(mkb10DictionaryUpdater, times(1)).apply(any());
+        assertNotEquals(first.id(), mkb10Service.startMkb10Refresh().id());
+    }
+
+    @Test
+    void updateMkb10Data_whileRefreshRunning_shouldWaitForIt() throws Exception {
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched("\"4\",\"0101A000\",\"A00.0\",\"Холера\",\"3\",,1,\n"));
+        stubUpdater(new Mkb10UpdateResult(1, 0, 0, 0, 0));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mkb10RefreshJob job = mkb10Service.startMkb10Refresh();
+        verify(taskExecutor).execute(task.capture());
+
+        Thread scheduled = new Thread(mkb10Service::updateMkb10Data);
+        scheduled.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mkb10Service.getMkb10RefreshJob(job.id()).joinedRequests() == 0) {
+            assertTrue(System.nanoTime() < deadline, "updateMkb10Data did not join the running refresh");
+            Thread.sleep(5);
+        }
+        assertTrue(scheduled.isAlive());
+        task.getValue().run();
+        scheduled.join(5000);
+
+        assertFalse(scheduled.isAlive());
+        verify(mkb10DictionaryUpdater, times(1)).apply(any());
+    }
+
+    @Test
+    void startMkb10Refresh_errorInRefresh_shouldMarkJobFailed() throws Exception {
+        when(mkb10SourceFetcher.fetch()).thenThrow(new OutOfMemoryError("Java heap space"));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        Mkb10RefreshJob started = mkb10Service.startMkb10Refresh();
+        verify(taskExecutor).execute(task.capture());
+        assertThrows(OutOfMemoryError.class, () -> task.getValue().run());
+
+        Mkb10RefreshJob finished = mkb10Service.getMkb10RefreshJob(started.id());
+        assertEquals(Mkb10RefreshJob.State.FAILED, finished.state());
+        assertNotNull(finished.finishedAt());
+        assertNotEquals(started.id(), mkb10Service.startMkb10Refresh().id());
+    }
+
+    @Test
+    void getMkb10RefreshJob_unknownId_shouldThrow() {
+        assertThrows(EntityNotFoundException.class, () -> mkb10Service.getMkb10RefreshJob("missing"));
+    }
+
+    @Test
+    void getDictionaryStatus_afterSuccessfulUpdate_shouldBeFresh() throws Exception {
+        String csvContent = """
+                "id","parent_code","code","name"
+                ,,"A00.0","Холера"
+                """;
+        when(mkb10Repository.findAll()).thenReturn(List.of(mkb10));
+        when(mkb10SourceFetcher.fetch()).thenReturn(fetched(csvContent));
+        stubUpdater(new Mkb10UpdateResult(1, 0, 0, 0, 0));
 
         mkb10Service.updateMkb10Data();
 
-        verify(mkb10Repository, never()).deleteAll();
-        verify(mkb10Repository, never()).saveAll(any());
+        Mkb10DictionaryStatus status = mkb10Service.getDictionaryStatus();
+        assertEquals(1, status.size());
+        assertFalse(status.stale());
+        assertFalse(status.refreshing());
+        assertNotNull(status.lastSuccessAt());
+        assertNull(status.lastError());
+    }
+
+    private Mkb10SourceFetcher.Result fetched(String csvContent) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("mkb10.csv"), csvContent);
+        return new Mkb10SourceFetcher.Result(Mkb10SourceFetcher.Status.DOWNLOADED, file, "sha", false);
+    }
+
+    /**
+     * Мок обновления справочника, вычитывающий источник как настоящий загрузчик.
+     */
+    private List<Mkb10> stubUpdater(Mkb10UpdateResult result) {
+        List<Mkb10> applied = new ArrayList<>();
+        lenient().when(mkb10HierarchyLoader.open()).thenReturn(hierarchyWriter);
+        when(mkb10DictionaryUpdater.apply(any())).thenAnswer(invocation -> {
+            invocation.<Mkb10RowSource>getArgument(0).forEach(applied::add);
+            return result;
+        });
+        return applied;
+    }
+
+    private static List<String> codes(List<Mkb10> mkb10List) {
+        return mkb10List.stream().map(Mkb10::getCode).toList();
+    }
+
+    @Test
+    void fullTextSearchMkb10_withoutPostgreSql_shouldMatchInflectedFormsInDictionary() throws Exception {
+        Mkb10 unspecified = new Mkb10();
+        unspecified.setCode("A00.9");
+        unspecified.setName("Холера неуточненная");
+        when(mkb10Repository.findAll()).thenReturn(Arrays.asList(unspecified, mkb10, mkb10_2));
+        mockDatabaseProduct("H2");
+        mkb10Service.reloadDictionary();
+
+        List<Mkb10Match> matches = mkb10Service.fullTextSearchMkb10("холеры", 10);
+
+        assertEquals(List.of("A00.0", "A00.9"), matches.stream().map(Mkb10Match::code).toList());
+        assertTrue(matches.get(0).rank() > matches.get(1).rank());
+        verify(mkb10Repository, never()).findByNameFullText(any(), anyInt());
+    }
+
+    @Test
+    void fullTextSearchMkb10_onPostgreSql_shouldUseIndexedQuery() throws Exception {
+        mockDatabaseProduct("PostgreSQL");
+        Mkb10Repository.RankedName row = mock(Mkb10Repository.RankedName.class);
+        when(row.getCode()).thenReturn("A00.0");
+        when(row.getName()).thenReturn("Холера");
+        when(row.getRank()).thenReturn(0.06);
+        when(mkb10Repository.findByNameFullText("холеры", 5)).thenReturn(List.of(row));
+
+        List<Mkb10Match> matches = mkb10Service.fullTextSearchMkb10(" холеры ", 5);
+
+        assertEquals(List.of(new Mkb10Match("A00.0", "Холера", 0.06)), matches);
+    }
+
+    @Test
+    void fullTextSearchMkb10_metadataUnavailable_shouldRetryDetectionOnNextSearch() throws Exception {
+        when(mkb10Repository.findAll()).thenReturn(List.of(mkb10));
+        mkb10Service.reloadDictionary();
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection is not available"))
+                .thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+
+        assertEquals(List.of("A00.0"),
+                mkb10Service.fullTextSearchMkb10("холера", 5).stream().map(Mkb10Match::code).toList());
+        verify(mkb10Repository, never()).findByNameFullText(any(), anyInt());
+
+        mkb10Service.fullTextSearchMkb10("холера", 5);
+        verify(mkb10Repository).findByNameFullText("холера", 5);
+    }
+
+    @Test
+    void fullTextSearchMkb10_invalidArguments_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> mkb10Service.fullTextSearchMkb10(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> mkb10Service.fullTextSearchMkb10("холера", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> mkb10Service.fullTextSearchMkb10("холера", Mkb10ServiceImpl.MAX_FULL_TEXT_LIMIT + 1));
+    }
+
+    private void mockDatabaseProduct(String product) throws Exception {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn(product);
     }
-}
\ No newline at end of file
+}
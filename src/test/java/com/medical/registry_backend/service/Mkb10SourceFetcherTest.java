@@ -0,0 +1,139 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.config.Mkb10Properties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mkb10SourceFetcherTest {
+
+    private static final String CSV = "\"4\",\"0101A000\",\"A00.0\",\"Холера\",\"3\",,1,\n";
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir
+    Path snapshotDir;
+
+    private HttpServer server;
+    private final List<String> ifNoneMatch = new ArrayList<>();
+    private volatile boolean honourConditional = true;
+    private volatile long responseDelayMillis;
+    private Mkb10SourceFetcher fetcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/mkb10.csv", exchange -> {
+            String conditional = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatch.add(conditional);
+            if (responseDelayMillis > 0) {
+                try {
+                    Thread.sleep(responseDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (honourConditional && ETAG.equals(conditional)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = CSV.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        Mkb10Properties properties = new Mkb10Properties();
+        properties.setSourceUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/mkb10.csv");
+        properties.setSnapshotDir(snapshotDir);
+        properties.setReadTimeout(Duration.ofMillis(300));
+        fetcher = new Mkb10SourceFetcher(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetch_firstTime_shouldDownloadUnconditionally() throws IOException {
+        Mkb10SourceFetcher.Result result = fetcher.fetch();
+
+        assertEquals(Mkb10SourceFetcher.Status.DOWNLOADED, result.status());
+        assertFalse(result.applied());
+        assertEquals(CSV, Files.readString(result.file()));
+        assertNull(ifNoneMatch.get(0));
+    }
+
+    @Test
+    void fetch_afterApply_shouldSendConditionalRequestAndReuseSnapshot() throws IOException {
+        fetcher.markApplied(fetcher.fetch());
+
+        Mkb10SourceFetcher.Result result = fetcher.fetch();
+
+        assertEquals(ETAG, ifNoneMatch.get(1));
+        assertEquals(Mkb10SourceFetcher.Status.NOT_MODIFIED, result.status());
+        assertTrue(result.applied());
+    }
+
+    @Test
+    void fetch_notModifiedButNeverApplied_shouldRequireParsing() throws IOException {
+        fetcher.fetch();
+
+        Mkb10SourceFetcher.Result result = fetcher.fetch();
+
+        assertEquals(Mkb10SourceFetcher.Status.NOT_MODIFIED, result.status());
+        assertFalse(result.applied());
+    }
+
+    @Test
+    void fetch_sameContentWithoutConditionalSupport_shouldMatchByHash() throws IOException {
+        honourConditional = false;
+        fetcher.markApplied(fetcher.fetch());
+
+        Mkb10SourceFetcher.Result result = fetcher.fetch();
+
+        assertEquals(Mkb10SourceFetcher.Status.DOWNLOADED, result.status());
+        assertTrue(result.applied());
+    }
+
+    @Test
+    void fetch_sourceTooSlow_shouldFallBackToLocalSnapshot() throws IOException {
+        Mkb10SourceFetcher.Result first = fetcher.fetch();
+        responseDelayMillis = 2_000;
+
+        Mkb10SourceFetcher.Result result = fetcher.fetch();
+
+        assertEquals(Mkb10SourceFetcher.Status.FALLBACK, result.status());
+        assertEquals(first.sha256(), result.sha256());
+        assertEquals(CSV, Files.readString(result.file()));
+    }
+
+    @Test
+    void fetch_sourceUnavailableWithoutSnapshot_shouldUseBundledFile() throws IOException {
+        server.stop(0);
+
+        Mkb10SourceFetcher.Result result = fetcher.fetch();
+
+        assertEquals(Mkb10SourceFetcher.Status.FALLBACK, result.status());
+        assertFalse(result.applied());
+        assertTrue(Files.size(result.file()) > 0);
+    }
+}
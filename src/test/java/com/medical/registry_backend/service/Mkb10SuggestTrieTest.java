@@ -0,0 +1,79 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Mkb10;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mkb10SuggestTrieTest {
+
+    private Mkb10SuggestTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = Mkb10SuggestTrie.build(List.of(
+                mkb10("J06.9", "Острая инфекция верхних дыхательных путей неуточненная"),
+                mkb10("J06.0", "Острый ларингофарингит"),
+                mkb10("J00.0", "Острый назофарингит"),
+                mkb10("A00.0", "Холера, вызванная холерным вибрионом 01, биовар cholerae"),
+                mkb10("B15.0", "Гепатит A с печеночной комой")));
+    }
+
+    @Test
+    void suggest_codePrefix_shouldReturnCodesInOrder() {
+        assertEquals(List.of("J00.0", "J06.0", "J06.9"), codes(trie.suggest("j0", 10)));
+        assertEquals(List.of("J06.0", "J06.9"), codes(trie.suggest("J06.", 10)));
+    }
+
+    @Test
+    void suggest_leadingWordPrefix_shouldMatchNames() {
+        assertEquals(List.of("J00.0", "J06.0", "J06.9"), codes(trie.suggest("остр", 10)));
+        assertEquals(List.of("A00.0"), codes(trie.suggest("вызв", 10)));
+    }
+
+    @Test
+    void suggest_codeMatchesShouldRankBeforeNameMatches() {
+        assertEquals(List.of("A00.0", "B15.0"), codes(trie.suggest("a", 10)));
+    }
+
+    @Test
+    void suggest_shouldRespectLimit() {
+        assertEquals(List.of("J00.0"), codes(trie.suggest("j", 1)));
+    }
+
+    @Test
+    void suggest_wordBeyondLeadingWords_shouldNotMatch() {
+        assertTrue(trie.suggest("cholerae", 10).isEmpty());
+        assertTrue(trie.suggest("", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_manyMatches_shouldKeepBestTopK() {
+        List<Mkb10> mkb10List = new ArrayList<>();
+        for (int i = 99; i >= 0; i--) {
+            mkb10List.add(mkb10(String.format("K%02d.0", i), "Болезнь " + i));
+        }
+        Mkb10SuggestTrie large = Mkb10SuggestTrie.build(mkb10List);
+
+        List<Mkb10> result = large.suggest("k", 100);
+
+        assertEquals(Mkb10SuggestTrie.MAX_SUGGESTIONS, result.size());
+        assertEquals("K00.0", result.get(0).getCode());
+        assertEquals("K19.0", result.get(Mkb10SuggestTrie.MAX_SUGGESTIONS - 1).getCode());
+    }
+
+    private static Mkb10 mkb10(String code, String name) {
+        Mkb10 mkb10 = new Mkb10();
+        mkb10.setCode(code);
+        mkb10.setName(name);
+        return mkb10;
+    }
+
+    private static List<String> codes(List<Mkb10> mkb10List) {
+        return mkb10List.stream().map(Mkb10::getCode).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.config.Mkb10Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class Mkb10WarmUpTest {
+
+    @Mock
+    private Mkb10Service mkb10Service;
+
+    @Mock
+    private TaskExecutor taskExecutor;
+
+    private Mkb10Properties mkb10Properties;
+    private Mkb10WarmUp mkb10WarmUp;
+
+    @BeforeEach
+    void setUp() {
+        mkb10Properties = new Mkb10Properties();
+        mkb10WarmUp = new Mkb10WarmUp(mkb10Service, mkb10Properties, taskExecutor);
+    }
+
+    @Test
+    void warmUp_asyncMode_shouldServeExistingTableAndRefreshInBackground() {
+        mkb10Properties.setStartupMode(Mkb10Properties.StartupMode.ASYNC);
+
+        mkb10WarmUp.warmUp();
+
+        verify(mkb10Service).reloadDictionary();
+        verify(mkb10Service, never()).updateMkb10Data();
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskExecutor).execute(task.capture());
+
+        task.getValue().run();
+        verify(mkb10Service).updateMkb10Data();
+    }
+
+    @Test
+    void warmUp_syncMode_shouldRefreshBeforeReturning() {
+        mkb10Properties.setStartupMode(Mkb10Properties.StartupMode.SYNC);
+
+        mkb10WarmUp.warmUp();
+
+        verify(mkb10Service).reloadDictionary();
+        verify(mkb10Service).updateMkb10Data();
+        verifyNoInteractions(taskExecutor);
+    }
+
+    @Test
+    void warmUp_offMode_shouldOnlyLoadExistingTable() {
+        mkb10Properties.setStartupMode(Mkb10Properties.StartupMode.OFF);
+
+        mkb10WarmUp.warmUp();
+
+        verify(mkb10Service).reloadDictionary();
+        verifyNoMoreInteractions(mkb10Service);
+        verifyNoInteractions(taskExecutor);
+    }
+}
@@ -0,0 +1,92 @@
+package com.medical.registry_backend.service;
+
+import com.medical.registry_backend.entity.Disease;
+import com.medical.registry_backend.entity.Mkb10;
+import com.medical.registry_backend.entity.Patient;
+import com.medical.registry_backend.repository.DiseaseRepository;
+import com.medical.registry_backend.repository.Mkb10Repository;
+import com.medical.registry_backend.repository.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PatientBatchInsertIntegrationTest {
+
+    private static final int DISEASES = 50;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private Mkb10Repository mkb10Repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Mkb10 mkb10;
+
+    @BeforeEach
+    void setUp() {
+        diseaseRepository.deleteAll();
+        patientRepository.deleteAll();
+        mkb10 = new Mkb10();
+        mkb10.setCode("J06.9");
+        mkb10.setName("Острая инфекция верхних дыхательных путей неуточненная");
+        mkb10Repository.save(mkb10);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void savePatient_withFiftyDiseases_shouldBatchInserts() {
+        Patient patient = new Patient();
+        patient.setLastName("Иванов");
+        patient.setFirstName("Иван");
+        patient.setGender("М");
+        patient.setBirthDate(LocalDate.of(1990, 1, 1));
+        patient.setInsuranceNumber("5555666677778888");
+        for (int i = 0; i < DISEASES; i++) {
+            Disease disease = new Disease();
+            disease.setMkb10(mkb10);
+            disease.setStartDate(LocalDate.of(2024, 1, 1).plusDays(i));
+            disease.setPrescriptions("Назначение " + i);
+            disease.setSickLeaveIssued(false);
+            patient.getDiseases().add(disease);
+        }
+        statistics.clear();
+
+        Patient saved = patientService.savePatient(patient);
+
+        assertEquals(1 + DISEASES, statistics.getEntityInsertCount());
+        // Одна вставка пациента, одна пакетная вставка заболеваний и обращения к последовательностям
+        // (при первом использовании пул инициализируется двумя вызовами). С IDENTITY было бы 51 выражение.
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "Prepared statements: " + statistics.getPrepareStatementCount());
+        assertEquals(DISEASES, patientService.getPatientById(saved.getId()).getDiseases().size());
+    }
+}
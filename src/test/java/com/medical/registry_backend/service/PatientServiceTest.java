@@ -4,19 +4,26 @@ import com.medical.registry_backend.entity.Disease;
 import com.medical.registry_backend.entity.Mkb10;
 import com.medical.registry_backend.entity.Patient;
 import com.medical.registry_backend.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import com.medical.registry_backend.dto.CursorSlice;
+import com.medical.registry_backend.dto.PatientSummary;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -25,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +45,9 @@ class PatientServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
@@ -77,28 +88,80 @@ class PatientServiceTest {
     @Test
     void getAllPatients_pageable_shouldReturnPagedPatients() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("lastName"));
-        List<Patient> patients = Arrays.asList(patient, patient2);
-        Page<Patient> page = new PageImpl<>(patients, pageable, patients.size());
-        when(patientRepository.findAll(pageable)).thenReturn(page);
+        Pageable idPageable = PageRequest.of(0, 10, Sort.by("lastName").and(Sort.by("id")));
+        when(patientRepository.findIdPage(idPageable)).thenReturn(new PageImpl<>(List.of(1L, 2L), idPageable, 12));
+        when(patientRepository.findByIdIn(List.of(1L, 2L))).thenReturn(Arrays.asList(patient2, patient));
 
         Page<Patient> result = patientService.getAllPatients(pageable);
 
         assertEquals(2, result.getContent().size());
+        assertEquals(12, result.getTotalElements());
         assertEquals("Иванов", result.getContent().get(0).getLastName());
         assertEquals("Петров", result.getContent().get(1).getLastName());
-        verify(patientRepository).findAll(pageable);
+        assertEquals(pageable, result.getPageable());
+        verify(patientRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
     void getAllPatients_pageable_emptyPage_shouldReturnEmptyPage() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("lastName"));
-        Page<Patient> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
-        when(patientRepository.findAll(pageable)).thenReturn(emptyPage);
+        when(patientRepository.findIdPage(any(Pageable.class))).thenReturn(Page.empty());
 
         Page<Patient> result = patientService.getAllPatients(pageable);
 
         assertTrue(result.getContent().isEmpty());
-        verify(patientRepository).findAll(pageable);
+        verify(patientRepository, never()).findByIdIn(any());
+    }
+
+    @Test
+    void getPatientSummaries_shouldNotLoadEntities() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("lastName"));
+        Pageable summaryPageable = PageRequest.of(0, 10, Sort.by("lastName").and(Sort.by("id")));
+        PatientSummary summary = new PatientSummary(1L, "Иванов", "Иван", "Иванович", "М",
+                LocalDate.of(1990, 1, 1), "1234567890", 0L, 3L);
+        when(patientRepository.findSummaryPageWithDiseaseCount(summaryPageable))
+                .thenReturn(new PageImpl<>(List.of(summary), summaryPageable, 11));
+
+        Page<PatientSummary> result = patientService.getPatientSummaries(pageable, true);
+
+        assertEquals(List.of(summary), result.getContent());
+        assertEquals(11, result.getTotalElements());
+        assertEquals(pageable, result.getPageable());
+        verify(patientRepository, never()).findSummaryPage(any(Pageable.class));
+        verify(patientRepository, never()).findByIdIn(any());
+    }
+
+    @Test
+    void getPatientsAfter_shouldSeekFromCursorAndReturnNextCursor() {
+        Sort sort = Sort.by("lastName").and(Sort.by("id"));
+        when(patientRepository.findBy(ScrollPosition.keyset(), sort, Limit.of(2))).thenReturn(Window.from(
+                List.of(patient, patient2),
+                index -> ScrollPosition.forward(Map.of("lastName", index == 0 ? "Иванов" : "Петров", "id", index + 1L)),
+                true));
+        when(patientRepository.findByIdIn(List.of(1L, 2L))).thenReturn(List.of(patient2, patient));
+
+        CursorSlice<Patient> first = patientService.getPatientsAfter("", Sort.by("lastName"), 2);
+
+        assertEquals(List.of(patient, patient2), first.content());
+        assertTrue(first.hasNext());
+        assertNotNull(first.nextCursor());
+
+        ScrollPosition afterPetrov = ScrollPosition.forward(Map.of("lastName", "Петров", "id", 2L));
+        when(patientRepository.findBy(afterPetrov, sort, Limit.of(2))).thenReturn(Window.from(List.of(), index -> afterPetrov));
+
+        CursorSlice<Patient> last = patientService.getPatientsAfter(first.nextCursor(), Sort.unsorted(), 2);
+
+        assertTrue(last.content().isEmpty());
+        assertFalse(last.hasNext());
+        assertNull(last.nextCursor());
+        verify(patientRepository, never()).findIdPage(any(Pageable.class));
+    }
+
+    @Test
+    void getPatientsAfter_invalidCursor_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> patientService.getPatientsAfter("!!!", Sort.unsorted(), 10));
+        verifyNoInteractions(patientRepository);
     }
 
     @Test
@@ -251,7 +314,7 @@ class PatientServiceTest {
         when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
-        Patient result = patientService.updatePatient(1L, updatedPatient);
+        Patient result = patientService.updatePatient(1L, updatedPatient, null);
 
         assertNotNull(result);
         assertEquals("Сидоров", result.getLastName());
@@ -262,12 +325,75 @@ class PatientServiceTest {
         verify(patientRepository).save(any(Patient.class));
     }
 
+    @Test
+    void updatePatient_shouldMergeDiseasesById() {
+        Disease kept = disease(10L, "A00.0", "Лечение");
+        Disease removed = disease(11L, "B02", "Покой");
+        patient.setDiseases(new ArrayList<>(List.of(kept, removed)));
+
+        Disease changed = disease(10L, "A00.0", "Новое назначение");
+        Disease added = disease(null, "J06.9", "Обильное питьё");
+        Patient updatedPatient = new Patient();
+        updatedPatient.setLastName("Иванов");
+        updatedPatient.setDiseases(new ArrayList<>(List.of(changed, added)));
+
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        when(patientRepository.save(any(Patient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Patient result = patientService.updatePatient(1L, updatedPatient, null);
+
+        assertEquals(2, result.getDiseases().size());
+        assertSame(kept, result.getDiseases().get(0));
+        assertEquals("Новое назначение", kept.getPrescriptions());
+        assertSame(added, result.getDiseases().get(1));
+        assertSame(patient, added.getPatient());
+        assertTrue(result.getDiseases().stream().noneMatch(d -> d == removed));
+        verify(patientRepository).flush();
+        verify(entityManager).lock(patient, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    @Test
+    void updatePatient_staleVersion_shouldThrowPreconditionFailed() {
+        patient.setVersion(3L);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.updatePatient(1L, new Patient(), 2L));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verify(patientRepository, never()).save(any(Patient.class));
+    }
+
+    @Test
+    void updatePatient_foreignDiseaseId_shouldThrowIllegalArgumentException() {
+        Patient updatedPatient = new Patient();
+        updatedPatient.setDiseases(new ArrayList<>(List.of(disease(99L, "A00.0", "Лечение"))));
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> patientService.updatePatient(1L, updatedPatient, null));
+
+        assertEquals("Заболевание с ID 99 не принадлежит пациенту с ID 1", exception.getMessage());
+        verify(patientRepository, never()).save(any());
+    }
+
+    private static Disease disease(Long id, String code, String prescriptions) {
+        Disease disease = new Disease();
+        disease.setId(id);
+        disease.setMkb10(new Mkb10());
+        disease.getMkb10().setCode(code);
+        disease.setStartDate(LocalDate.of(2025, 1, 15));
+        disease.setPrescriptions(prescriptions);
+        disease.setSickLeaveIssued(false);
+        return disease;
+    }
+
     @Test
     void updatePatient_notFound_shouldThrowResponseStatusException() {
         when(patientRepository.findById(3L)).thenReturn(Optional.empty());
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
-            patientService.updatePatient(3L, patient);
+            patientService.updatePatient(3L, patient, null);
         });
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
@@ -291,7 +417,7 @@ class PatientServiceTest {
         when(patientRepository.save(any(Patient.class))).thenThrow(new DataIntegrityViolationException("Constraint violation"));
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
-            patientService.updatePatient(1L, updatedPatient);
+            patientService.updatePatient(1L, updatedPatient, null);
         });
 
         assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
@@ -311,7 +437,7 @@ class PatientServiceTest {
         when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-            patientService.updatePatient(1L, updatedPatient);
+            patientService.updatePatient(1L, updatedPatient, null);
         });
 
         assertEquals("Disease must have an associated Mkb10", exception.getMessage());
@@ -321,25 +447,37 @@ class PatientServiceTest {
 
     @Test
     void deletePatient_existingId_shouldDeletePatient() {
-        when(patientRepository.existsById(1L)).thenReturn(true);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
 
-        patientService.deletePatient(1L);
+        patientService.deletePatient(1L, null);
 
-        verify(patientRepository).existsById(1L);
-        verify(patientRepository).deleteById(1L);
+        verify(patientRepository).findById(1L);
+        verify(patientRepository).delete(patient);
+    }
+
+    @Test
+    void deletePatient_staleVersion_shouldThrowPreconditionFailedWithoutDeleting() {
+        patient.setVersion(3L);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.deletePatient(1L, 2L));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verify(patientRepository, never()).delete(any(Patient.class));
     }
 
     @Test
     void deletePatient_nonExistingId_shouldThrowEntityNotFoundException() {
-        when(patientRepository.existsById(3L)).thenReturn(false);
+        when(patientRepository.findById(3L)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            patientService.deletePatient(3L);
+            patientService.deletePatient(3L, null);
         });
 
         assertEquals("Пациент с ID 3 не найден", exception.getMessage());
-        verify(patientRepository).existsById(3L);
-        verify(patientRepository, never()).deleteById(any());
+        verify(patientRepository).findById(3L);
+        verify(patientRepository, never()).delete(any(Patient.class));
     }
 
     @Test
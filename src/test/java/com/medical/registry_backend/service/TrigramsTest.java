@@ -0,0 +1,40 @@
+package com.medical.registry_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramsTest {
+
+    @Test
+    void of_shouldPadWordsLikePgTrgm() {
+        assertEquals(Set.of("  к", " ко", "кот", "от "), Trigrams.of(Trigrams.words("Кот")));
+    }
+
+    @Test
+    void words_shouldNormalizeCaseAndYo() {
+        assertEquals(List.of("семенов", "петр"), Trigrams.words("СЕМЁНОВ, Пётр"));
+    }
+
+    @Test
+    void similarity_shouldTolerateDoubledLetter() {
+        double score = Trigrams.similarity(Trigrams.of(List.of("иваннов")), Trigrams.of(List.of("иванов")));
+
+        assertEquals(6.0 / 9, score, 1e-9);
+    }
+
+    @Test
+    void wordSimilarity_shouldMatchQueryAgainstBestWordSpan() {
+        assertEquals(1.0, Trigrams.wordSimilarity("Семёнов Пётр", "Семенов Петр Ильич"), 1e-9);
+        assertTrue(Trigrams.wordSimilarity("Иваннов", "Иванов Иван Иванович") > 0.6);
+        assertTrue(Trigrams.wordSimilarity("Петров", "Сидоров Иван Иванович") < 0.3);
+    }
+
+    @Test
+    void wordSimilarity_emptyQuery_shouldBeZero() {
+        assertEquals(0.0, Trigrams.wordSimilarity(" , ", "Иванов"));
+    }
+}